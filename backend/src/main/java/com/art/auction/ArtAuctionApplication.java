@@ -25,7 +25,7 @@ public class ArtAuctionApplication {
                         .allowedOrigins("http://localhost:5173", "http://localhost:3000", "http://localhost:4173")
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
-                        .exposedHeaders("Authorization")
+                        .exposedHeaders("Authorization", "Retry-After", "X-Retry-After-Ms", "ETag")
                         .allowCredentials(true);
             }
         };
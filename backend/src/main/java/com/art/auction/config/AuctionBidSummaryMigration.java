@@ -0,0 +1,50 @@
+
+package com.art.auction.config;
+
+import com.art.auction.model.Auction;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-time migration from the old embedded {@code bids} array to the bounded
+ * {@code bidCount}/{@code recentBids} summary. Runs server-side in a single update and only
+ * touches documents that still carry the old field, so it is a no-op once applied.
+ * Runs while the context is being built; beans that read auctions while starting up depend
+ * on it, so they never load a document still in the old shape.
+ */
+@Component
+public class AuctionBidSummaryMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuctionBidSummaryMigration.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.auction.recent-bids:10}")
+    private int recentBidLimit;
+
+    @PostConstruct
+    public void migrate() {
+        Query query = new Query(Criteria.where("bids").exists(true));
+        
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("bidCount").toValue(ArrayOperators.Size.lengthOfArray("bids"))
+                .set("recentBids").toValue(ArrayOperators.Slice.sliceArrayOf("bids").itemCount(-recentBidLimit))
+                .unset("bids");
+        
+        UpdateResult result = mongoTemplate.updateMulti(query, update, Auction.class);
+        if (result.getModifiedCount() > 0) {
+            logger.info("Migrated {} auctions to bounded bid summaries", result.getModifiedCount());
+        }
+    }
+}
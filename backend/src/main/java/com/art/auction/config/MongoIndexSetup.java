@@ -0,0 +1,243 @@
+
+package com.art.auction.config;
+
+import com.art.auction.dto.AuctionSummary;
+import com.art.auction.dto.PageCursor;
+import com.art.auction.model.Auction;
+import com.art.auction.model.Bid;
+import com.art.auction.model.MaxBid;
+import com.art.auction.model.Message;
+import com.art.auction.model.User;
+import com.art.auction.repository.AuctionRepository;
+import com.art.auction.repository.AuctionSort;
+import com.art.auction.repository.BidRepository;
+import com.art.auction.repository.BidRepositoryCustom;
+import com.art.auction.repository.MaxBidRepository;
+import com.art.auction.repository.MessageRepository;
+import com.art.auction.repository.UserRepository;
+import com.art.auction.repository.UserRepositoryCustom;
+import com.mongodb.client.MongoDatabase;
+import jakarta.annotation.PostConstruct;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the indexes declared on the models, checks they exist, and explain-plans the
+ * repositories' queries so a query that would scan a whole collection is reported at startup
+ * rather than found in production. With {@code strict} set, either problem stops the application.
+ * Runs as soon as the repositories exist; beans that read whole collections while starting up
+ * depend on it, so they never run against a collection that is still missing its indexes.
+ */
+@Component
+public class MongoIndexSetup {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexSetup.class);
+
+    private static final List<Class<?>> INDEXED_TYPES = List.of(
+            Auction.class, Bid.class, Message.class, User.class, MaxBid.class);
+
+    // Any well-formed id will do: the plan depends on the query's shape, not on its values
+    private static final String SAMPLE_ID = "000000000000000000000000";
+
+    private static final String SAMPLE_EMAIL = "probe@example.invalid";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private QueryCapture queryCapture;
+
+    @Autowired
+    private AuctionRepository auctionRepository;
+
+    @Autowired
+    private BidRepository bidRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MaxBidRepository maxBidRepository;
+
+    @Value("${app.mongo-indexes.ensure:true}")
+    private boolean ensure;
+
+    @Value("${app.mongo-indexes.explain:true}")
+    private boolean explain;
+
+    @Value("${app.mongo-indexes.strict:false}")
+    private boolean strict;
+
+    @PostConstruct
+    public void start() {
+        List<String> problems = new ArrayList<>();
+        if (ensure) {
+            ensureIndexes(problems);
+        }
+        if (explain) {
+            explainQueries(problems);
+        }
+
+        if (problems.isEmpty()) {
+            return;
+        }
+        problems.forEach(problem -> logger.warn("Index check: {}", problem));
+        if (strict) {
+            throw new IllegalStateException("Index check failed: " + String.join("; ", problems));
+        }
+    }
+
+    private void ensureIndexes(List<String> problems) {
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+
+        for (Class<?> type : INDEXED_TYPES) {
+            IndexOperations operations = mongoTemplate.indexOps(type);
+            List<String> declared = new ArrayList<>();
+            for (IndexDefinition index : resolver.resolveIndexFor(type)) {
+                try {
+                    declared.add(operations.ensureIndex(index));
+                } catch (RuntimeException e) {
+                    // E.g. duplicate emails blocking the unique index, or an index of the same name with other keys
+                    problems.add("could not create index " + index.getIndexKeys().toJson()
+                            + " on " + mongoTemplate.getCollectionName(type) + ": " + e.getMessage());
+                }
+            }
+
+            Set<String> existing = operations.getIndexInfo().stream()
+                    .map(IndexInfo::getName)
+                    .collect(Collectors.toSet());
+            for (String name : declared) {
+                if (!existing.contains(name)) {
+                    problems.add("index " + name + " is missing on " + mongoTemplate.getCollectionName(type));
+                }
+            }
+            logger.info("Verified {} indexes on {}", declared.size(), mongoTemplate.getCollectionName(type));
+        }
+    }
+
+    /**
+     * One entry per repository query, run for real with values that match little or nothing: the
+     * plan depends on the query's shape, not on its values, and the shape is whatever the
+     * repository sends.
+     */
+    private Map<String, Runnable> queries() {
+        LocalDateTime never = LocalDateTime.now().plusYears(1000);
+        LocalDateTime epoch = LocalDateTime.of(1970, 1, 1, 0, 0);
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+
+        queries.put("AuctionRepository.findByEndTimeAfterAndStatus",
+                () -> auctionRepository.findByEndTimeAfterAndStatus(never, Auction.AuctionStatus.ACTIVE));
+        queries.put("AuctionRepository.findIdsByStatusAndEndTimeBefore",
+                () -> auctionRepository.findIdsByStatusAndEndTimeBefore(Auction.AuctionStatus.ACTIVE, epoch));
+        queries.put("AuctionRepository.findEndTimesByStatus",
+                () -> auctionRepository.findEndTimesByStatus(Auction.AuctionStatus.CANCELLED));
+        for (AuctionSort sort : AuctionSort.values()) {
+            AuctionSummary last = new AuctionSummary();
+            last.setEndTime(epoch);
+            last.setCreatedAt(never);
+            last.setCurrentBid(Double.MAX_VALUE);
+            PageCursor after = new PageCursor(sort.name(), sort.formatKey(last), SAMPLE_ID);
+            queries.put("AuctionRepository.findActiveSummaries(" + sort + ")",
+                    () -> auctionRepository.findActiveSummaries(sort, null, 1));
+            queries.put("AuctionRepository.findActiveSummaries(" + sort + ", after)",
+                    () -> auctionRepository.findActiveSummaries(sort, after, 1));
+            queries.put("AuctionRepository.findSellerSummaries(" + sort + ")",
+                    () -> auctionRepository.findSellerSummaries(SAMPLE_ID, sort, null, 1));
+            queries.put("AuctionRepository.findSellerSummaries(" + sort + ", after)",
+                    () -> auctionRepository.findSellerSummaries(SAMPLE_ID, sort, after, 1));
+        }
+
+        PageCursor olderBids = new PageCursor(BidRepositoryCustom.TIMESTAMP_SORT, epoch.toString(), SAMPLE_ID);
+        queries.put("BidRepository.findByAuctionId", () -> bidRepository.findByAuctionId(SAMPLE_ID));
+        queries.put("BidRepository.findByBidderId", () -> bidRepository.findByBidderId(SAMPLE_ID));
+        queries.put("BidRepository.findAuctionBidsPage", () -> bidRepository.findAuctionBidsPage(SAMPLE_ID, null, 1));
+        queries.put("BidRepository.findAuctionBidsPage(after)",
+                () -> bidRepository.findAuctionBidsPage(SAMPLE_ID, olderBids, 1));
+        queries.put("BidRepository.findBidderBidsPage", () -> bidRepository.findBidderBidsPage(SAMPLE_ID, null, 1));
+        queries.put("BidRepository.findBidderBidsPage(after)",
+                () -> bidRepository.findBidderBidsPage(SAMPLE_ID, olderBids, 1));
+
+        queries.put("MessageRepository.findByRecipientIdOrderByTimestampDesc",
+                () -> messageRepository.findByRecipientIdOrderByTimestampDesc(SAMPLE_ID));
+        queries.put("MessageRepository.findByRecipientIdAndReadFalse",
+                () -> messageRepository.findByRecipientIdAndReadFalse(SAMPLE_ID));
+
+        queries.put("UserRepository.findByEmail", () -> userRepository.findByEmail(SAMPLE_EMAIL));
+        queries.put("UserRepository.existsByEmail", () -> userRepository.existsByEmail(SAMPLE_EMAIL));
+        queries.put("UserRepository.findUserSummaries",
+                () -> userRepository.findUserSummaries(null, null, null, null, 1));
+        queries.put("UserRepository.findUserSummaries(role)",
+                () -> userRepository.findUserSummaries(null, User.Role.ROLE_ADMIN, null, null, 1));
+        queries.put("UserRepository.findUserSummaries(active, after)",
+                () -> userRepository.findUserSummaries(true, null, null,
+                        new PageCursor(UserRepositoryCustom.EMAIL_SORT, SAMPLE_EMAIL, SAMPLE_ID), 1));
+
+        queries.put("MaxBidRepository.findByAuctionId", () -> maxBidRepository.findByAuctionId(SAMPLE_ID));
+        return queries;
+    }
+
+    private void explainQueries(List<String> problems) {
+        MongoDatabase database = mongoTemplate.getDb();
+        queries().forEach((name, query) -> {
+            try {
+                for (BsonDocument command : queryCapture.capture(query)) {
+                    Document plan = database.runCommand(
+                            new Document("explain", command).append("verbosity", "queryPlanner"));
+                    if (containsStage(plan, "COLLSCAN")) {
+                        problems.add(name + " scans the whole " + command.get(command.getFirstKey()).asString().getValue()
+                                + " collection");
+                    } else {
+                        logger.debug("Query plan for {} uses an index", name);
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not explain {}: {}", name, e.getMessage());
+            }
+        });
+    }
+
+    // Walks an explain result (winningPlan, inputStage, inputStages, aggregate stages, ...) looking for
+    // the given stage; plans the planner rejected do not count
+    private static boolean containsStage(Object node, String stage) {
+        if (node instanceof Document) {
+            Document document = (Document) node;
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            for (Map.Entry<String, Object> child : document.entrySet()) {
+                if (!child.getKey().equals("rejectedPlans") && containsStage(child.getValue(), stage)) {
+                    return true;
+                }
+            }
+        } else if (node instanceof List) {
+            for (Object child : (List<?>) node) {
+                if (containsStage(child, stage)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,53 @@
+package com.art.auction.config;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records the read commands a thread sends to MongoDB while it runs inside {@link #capture}, so the
+ * repositories' queries can be explained exactly as the driver issues them. The driver reports
+ * commands on the thread that sends them; on any other thread, or outside a capture, this is a no-op.
+ */
+@Component
+public class QueryCapture implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    private static final Set<String> READS = Set.of("find", "count", "aggregate");
+
+    private final ThreadLocal<List<BsonDocument>> captured = new ThreadLocal<>();
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        builder.addCommandListener(this);
+    }
+
+    // Runs the call and returns the read commands it sent, ready to be wrapped in an explain
+    public List<BsonDocument> capture(Runnable call) {
+        List<BsonDocument> commands = new ArrayList<>();
+        captured.set(commands);
+        try {
+            call.run();
+        } finally {
+            captured.remove();
+        }
+        return commands;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        List<BsonDocument> commands = captured.get();
+        if (commands != null && READS.contains(event.getCommandName())) {
+            BsonDocument command = event.getCommand().clone();
+            // Session and routing fields the driver adds; explain takes only the command itself
+            command.keySet().removeIf(key -> key.startsWith("$") || key.equals("lsid") || key.equals("txnNumber"));
+            commands.add(command);
+        }
+    }
+}
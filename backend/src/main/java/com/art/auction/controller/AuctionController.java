@@ -2,15 +2,29 @@
 package com.art.auction.controller;
 
 import com.art.auction.dto.AuctionRequest;
+import com.art.auction.dto.AuctionUpdateRequest;
+import com.art.auction.dto.PageCursor;
+import com.art.auction.dto.PriceHistoryView;
+import com.art.auction.event.AuctionCreatedEvent;
 import com.art.auction.model.Auction;
 import com.art.auction.model.User;
 import com.art.auction.repository.AuctionRepository;
+import com.art.auction.repository.AuctionSort;
 import com.art.auction.repository.UserRepository;
 import com.art.auction.security.UserDetailsImpl;
+import com.art.auction.service.AuctionSearchIndex;
 import com.art.auction.service.AuctionService;
+import com.art.auction.service.AuctionVersions;
+import com.art.auction.service.BidEngine;
 import com.art.auction.service.FileStorageService;
+import com.art.auction.service.PriceHistory;
+import com.art.auction.service.UpdateResult;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -18,8 +32,13 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/auctions")
@@ -36,28 +55,101 @@ public class AuctionController {
     
     @Autowired
     private FileStorageService fileStorageService;
+    
+    @Autowired
+    private BidEngine bidEngine;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private AuctionVersions auctionVersions;
+    
+    @Autowired
+    private AuctionSearchIndex searchIndex;
+    
+    @Autowired
+    private PriceHistory priceHistory;
+    
+    @Value("${app.pagination.max-page-size:100}")
+    private int maxPageSize;
+    
+    @Value("${app.bid-engine.timeout-ms:5000}")
+    private long bidTimeoutMs;
 
     @GetMapping
-    public ResponseEntity<List<Auction>> getAllActiveAuctions() {
-        List<Auction> auctions = auctionService.findAllActiveAuctions();
-        return ResponseEntity.ok(auctions);
+    public ResponseEntity<?> getAllActiveAuctions(
+            @RequestParam(defaultValue = "ENDING_SOONEST") AuctionSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            PageCursor after = PageCursor.decode(cursor, sort.name());
+            return ResponseEntity.ok(auctionService.findActiveAuctions(sort, after, pageSize(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchAuctions(
+            @RequestParam String q,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "ACTIVE") List<Auction.AuctionStatus> status,
+            @RequestParam(defaultValue = "RELEVANCE") AuctionSearchIndex.SearchSort sort,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            return ResponseEntity.badRequest().body("Error: minPrice is greater than maxPrice");
+        }
+        if (status.isEmpty() || status.contains(null)) {
+            return ResponseEntity.badRequest().body("Error: Invalid status");
+        }
+        return ResponseEntity.ok(searchIndex.search(q, EnumSet.copyOf(status), minPrice, maxPrice, sort, pageSize(limit)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getAuctionById(@PathVariable String id) {
+    public ResponseEntity<?> getAuctionById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Unchanged since the client's copy: answer from memory without reading the document
+        Long knownVersion = auctionVersions.get(id);
+        if (knownVersion != null && matchesETag(ifNoneMatch, knownVersion)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag(knownVersion)).build();
+        }
+        
         Optional<Auction> auction = auctionRepository.findById(id);
         
         if (auction.isPresent()) {
-            return ResponseEntity.ok(auction.get());
+            auctionVersions.observe(id, auction.get().getVersion());
+            return ResponseEntity.ok().eTag(eTag(auction.get().getVersion())).body(auction.get());
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @GetMapping("/{id}/history")
+    public ResponseEntity<?> getPriceHistory(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "200") int points) {
+        PriceHistoryView history = priceHistory.get(id, points);
+        if (history == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(history);
+    }
+
     @GetMapping("/seller")
-    public ResponseEntity<List<Auction>> getSellerAuctions(@AuthenticationPrincipal UserDetailsImpl userDetails) {
-        List<Auction> auctions = auctionRepository.findBySellerId(userDetails.getId());
-        return ResponseEntity.ok(auctions);
+    public ResponseEntity<?> getSellerAuctions(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestParam(defaultValue = "NEWEST") AuctionSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            PageCursor after = PageCursor.decode(cursor, sort.name());
+            return ResponseEntity.ok(auctionService.findSellerAuctions(userDetails.getId(), sort, after, pageSize(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
     }
 
     @PostMapping
@@ -89,10 +181,20 @@ public class AuctionController {
             
             // Calculate end time based on duration
             auction.setEndTime(LocalDateTime.now().plusHours(auctionRequest.getDurationHours()));
+            
+            if (auctionRequest.getSoftCloseWindowSeconds() != null && auctionRequest.getSoftCloseWindowSeconds() > 0) {
+                auction.setSoftCloseWindowSeconds(auctionRequest.getSoftCloseWindowSeconds());
+                auction.setSoftCloseExtensionSeconds(auctionRequest.getSoftCloseExtensionSeconds() != null
+                        ? auctionRequest.getSoftCloseExtensionSeconds() : auctionRequest.getSoftCloseWindowSeconds());
+                int cap = auctionRequest.getSoftCloseMaxExtensionSeconds() != null
+                        ? auctionRequest.getSoftCloseMaxExtensionSeconds() : 3600;
+                auction.setSoftCloseMaxEndTime(auction.getEndTime().plusSeconds(cap));
+            }
             auction.setCreatedAt(LocalDateTime.now());
             auction.setUpdatedAt(LocalDateTime.now());
             
             Auction savedAuction = auctionRepository.save(auction);
+            eventPublisher.publishEvent(new AuctionCreatedEvent(savedAuction));
             
             return ResponseEntity.ok(savedAuction);
             
@@ -101,20 +203,127 @@ public class AuctionController {
         }
     }
 
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateAuction(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody AuctionUpdateRequest updateRequest,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        
+        Long expectedVersion = parseETag(ifMatch);
+        if (expectedVersion == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED)
+                    .body("Error: If-Match with the auction's ETag is required");
+        }
+        
+        UpdateResult result;
+        try {
+            // Checked and written on the auction's writer, so a bid cannot slip in between
+            result = bidEngine.update(id, userDetails.getId(), expectedVersion,
+                    updateRequest.getName(), updateRequest.getDescription()).get(bidTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return outcomeUnknown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return outcomeUnknown();
+        } catch (ExecutionException e) {
+            return failure(e);
+        }
+        
+        switch (result.getStatus()) {
+            case UPDATED:
+                return ResponseEntity.ok().eTag(eTag(result.getVersion())).body("Auction updated successfully");
+            case AUCTION_NOT_FOUND:
+                return ResponseEntity.notFound().build();
+            case NOT_OWNER:
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Error: You can only update your own auctions");
+            case AUCTION_NOT_ACTIVE:
+                return ResponseEntity.badRequest().body("Error: This auction is not active");
+            default:
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(eTag(result.getVersion()))
+                        .body("Error: The auction was changed by someone else, reload it and try again");
+        }
+    }
+
     @PutMapping("/{id}/cancel")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     public ResponseEntity<?> cancelAuction(@PathVariable String id) {
-        Optional<Auction> auctionData = auctionRepository.findById(id);
-        
-        if (auctionData.isEmpty()) {
+        if (!auctionRepository.existsById(id)) {
             return ResponseEntity.notFound().build();
         }
         
-        Auction auction = auctionData.get();
-        auction.setStatus(Auction.AuctionStatus.CANCELLED);
-        auction.setUpdatedAt(LocalDateTime.now());
-        
-        auctionRepository.save(auction);
-        return ResponseEntity.ok("Auction cancelled successfully");
+        try {
+            // Cancel through the bid engine so the auction's writer stops accepting bids at once
+            Optional<Auction> cancelled = bidEngine.close(id, Auction.AuctionStatus.CANCELLED)
+                    .get(bidTimeoutMs, TimeUnit.MILLISECONDS);
+            if (cancelled.isEmpty()) {
+                return ResponseEntity.badRequest().body("Error: This auction is not active");
+            }
+            
+            return ResponseEntity.ok("Auction cancelled successfully");
+            
+        } catch (TimeoutException e) {
+            return outcomeUnknown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return outcomeUnknown();
+        } catch (ExecutionException e) {
+            return failure(e);
+        }
+    }
+    
+    // The change is still queued on the auction's shard and may yet be applied
+    private ResponseEntity<?> outcomeUnknown() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body("Error: The change is still being processed, its outcome is not known yet");
+    }
+    
+    private ResponseEntity<?> failure(ExecutionException e) {
+        Throwable cause = e.getCause();
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return ResponseEntity.internalServerError().body("Error: " + cause.getMessage());
+    }
+    
+    private int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, maxPageSize));
+    }
+    
+    // The auction's version is its ETag
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+    
+    private static Long parseETag(String value) {
+        if (value == null) {
+            return null;
+        }
+        String tag = value.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    // If-None-Match may list several tags
+    private static boolean matchesETag(String header, long version) {
+        if (header == null) {
+            return false;
+        }
+        for (String tag : header.split(",")) {
+            Long parsed = parseETag(tag);
+            if (parsed != null && parsed == version) {
+                return true;
+            }
+        }
+        return false;
     }
 }
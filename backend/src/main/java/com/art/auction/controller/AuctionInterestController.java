@@ -0,0 +1,39 @@
+
+package com.art.auction.controller;
+
+import com.art.auction.dto.InterestRequest;
+import com.art.auction.dto.ResumeRequest;
+import com.art.auction.service.AuctionEventLog;
+import com.art.auction.service.AuctionInterestRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Controller;
+
+import java.util.List;
+import java.util.Map;
+
+@Controller
+public class AuctionInterestController {
+
+    @Autowired
+    private AuctionInterestRegistry interestRegistry;
+
+    @Autowired
+    private AuctionEventLog eventLog;
+
+    // STOMP SEND to /app/interest with the ids currently on screen or watched
+    @MessageMapping("/interest")
+    public void setInterest(@Payload InterestRequest request, SimpMessageHeaderAccessor headers) {
+        List<String> auctionIds = request.getAuctionIds() == null ? List.of() : request.getAuctionIds();
+        interestRegistry.setInterest(headers.getSessionId(), auctionIds);
+    }
+
+    // STOMP SEND to /app/resume after a reconnect; what was missed arrives on /user/queue/replay
+    @MessageMapping("/resume")
+    public void resume(@Payload ResumeRequest request, SimpMessageHeaderAccessor headers) {
+        Map<String, Long> auctions = request.getAuctions() == null ? Map.of() : request.getAuctions();
+        eventLog.resume(headers.getSessionId(), request.getEpoch(), auctions);
+    }
+}
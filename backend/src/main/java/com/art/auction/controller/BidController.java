@@ -2,23 +2,32 @@
 package com.art.auction.controller;
 
 import com.art.auction.dto.BidRequest;
-import com.art.auction.model.Auction;
+import com.art.auction.dto.CursorPage;
+import com.art.auction.dto.MaxBidRequest;
+import com.art.auction.dto.PageCursor;
 import com.art.auction.model.Bid;
-import com.art.auction.model.User;
-import com.art.auction.repository.AuctionRepository;
 import com.art.auction.repository.BidRepository;
-import com.art.auction.repository.UserRepository;
+import com.art.auction.repository.BidRepositoryCustom;
 import com.art.auction.security.UserDetailsImpl;
-import com.art.auction.service.WebSocketService;
+import com.art.auction.service.BidAdmissionControl;
+import com.art.auction.service.BidEngine;
+import com.art.auction.service.BidResult;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/bids")
@@ -28,24 +37,45 @@ public class BidController {
     private BidRepository bidRepository;
     
     @Autowired
-    private AuctionRepository auctionRepository;
+    private BidEngine bidEngine;
     
     @Autowired
-    private UserRepository userRepository;
+    private BidAdmissionControl admissionControl;
     
-    @Autowired
-    private WebSocketService webSocketService;
+    @Value("${app.bid-engine.timeout-ms:5000}")
+    private long bidTimeoutMs;
+    
+    @Value("${app.pagination.max-page-size:100}")
+    private int maxPageSize;
 
     @GetMapping("/auction/{auctionId}")
-    public ResponseEntity<List<Bid>> getBidsByAuction(@PathVariable String auctionId) {
-        List<Bid> bids = bidRepository.findByAuctionId(auctionId);
-        return ResponseEntity.ok(bids);
+    public ResponseEntity<?> getBidsByAuction(
+            @PathVariable String auctionId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            PageCursor after = PageCursor.decode(cursor, BidRepositoryCustom.TIMESTAMP_SORT);
+            int size = pageSize(limit);
+            List<Bid> bids = bidRepository.findAuctionBidsPage(auctionId, after, size);
+            return ResponseEntity.ok(CursorPage.of(bids, size, this::cursorOf));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
     }
 
     @GetMapping("/user")
-    public ResponseEntity<List<Bid>> getUserBids(@AuthenticationPrincipal UserDetailsImpl userDetails) {
-        List<Bid> bids = bidRepository.findByBidderId(userDetails.getId());
-        return ResponseEntity.ok(bids);
+    public ResponseEntity<?> getUserBids(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            PageCursor after = PageCursor.decode(cursor, BidRepositoryCustom.TIMESTAMP_SORT);
+            int size = pageSize(limit);
+            List<Bid> bids = bidRepository.findBidderBidsPage(userDetails.getId(), after, size);
+            return ResponseEntity.ok(CursorPage.of(bids, size, this::cursorOf));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
     }
 
     @PostMapping
@@ -53,69 +83,150 @@ public class BidController {
             @Valid @RequestBody BidRequest bidRequest,
             @AuthenticationPrincipal UserDetailsImpl userDetails) {
         
-        // Find the auction
-        Optional<Auction> auctionData = auctionRepository.findById(bidRequest.getAuctionId());
-        if (auctionData.isEmpty()) {
-            return ResponseEntity.badRequest().body("Error: Auction not found");
-        }
-        
-        Auction auction = auctionData.get();
-        
-        // Check if auction is active
-        if (auction.getStatus() != Auction.AuctionStatus.ACTIVE) {
-            return ResponseEntity.badRequest().body("Error: This auction is not active");
+        // Cheap in-memory checks first; the bidder was already loaded by the auth filter
+        BidAdmissionControl.Decision decision = admissionControl.admit(
+                userDetails.getId(), bidRequest.getAuctionId(), bidRequest.getAmount());
+        if (decision.getOutcome() != BidAdmissionControl.Outcome.ADMITTED) {
+            return refusal(decision);
         }
         
-        // Check if auction has ended
-        if (auction.getEndTime().isBefore(LocalDateTime.now())) {
-            auction.setStatus(Auction.AuctionStatus.ENDED);
-            auctionRepository.save(auction);
-            return ResponseEntity.badRequest().body("Error: This auction has ended");
-        }
-        
-        // Check if bid is high enough
-        if (bidRequest.getAmount() <= auction.getCurrentBid()) {
-            return ResponseEntity.badRequest().body("Error: Bid amount must be higher than current bid");
-        }
-        
-        // Get bidder info
-        Optional<User> bidder = userRepository.findById(userDetails.getId());
-        if (bidder.isEmpty()) {
-            return ResponseEntity.badRequest().body("Error: Bidder not found");
+        try {
+            // The engine decides the bid on the auction's own writer and persists it
+            BidResult result = bidEngine.placeBid(
+                    bidRequest.getAuctionId(),
+                    userDetails.getId(),
+                    userDetails.getName(),
+                    bidRequest.getAmount()).get(bidTimeoutMs, TimeUnit.MILLISECONDS);
+            
+            if (result.isAccepted()) {
+                return ResponseEntity.ok(result.getBid());
+            }
+            return rejection(result.getStatus());
+            
+        } catch (TimeoutException e) {
+            return outcomeUnknown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return outcomeUnknown();
+        } catch (ExecutionException e) {
+            return failure(e);
         }
+    }
+
+    @PutMapping("/max")
+    public ResponseEntity<?> setMaxBid(
+            @Valid @RequestBody MaxBidRequest maxBidRequest,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
         
-        // Prevent seller from bidding on their own item
-        if (auction.getSellerId().equals(userDetails.getId())) {
-            return ResponseEntity.badRequest().body("Error: You cannot bid on your own item");
+        BidAdmissionControl.Decision decision = admissionControl.admit(
+                userDetails.getId(), maxBidRequest.getAuctionId(), maxBidRequest.getMaxAmount());
+        if (decision.getOutcome() != BidAdmissionControl.Outcome.ADMITTED) {
+            return refusal(decision);
         }
         
         try {
-            // Create and save bid
-            Bid bid = new Bid();
-            bid.setAuctionId(auction.getId());
-            bid.setBidderId(userDetails.getId());
-            bid.setBidderName(bidder.get().getName());
-            bid.setAmount(bidRequest.getAmount());
-            bid.setTimestamp(LocalDateTime.now());
+            // The engine bids on the user's behalf up to the maximum, one increment at a time
+            BidResult result = bidEngine.setMaxBid(
+                    maxBidRequest.getAuctionId(),
+                    userDetails.getId(),
+                    userDetails.getName(),
+                    maxBidRequest.getMaxAmount()).get(bidTimeoutMs, TimeUnit.MILLISECONDS);
             
-            Bid savedBid = bidRepository.save(bid);
+            if (!result.isAccepted()) {
+                return rejection(result.getStatus());
+            }
             
-            // Update auction with new bid
-            auction.setCurrentBid(bidRequest.getAmount());
-            auction.setCurrentBidderId(userDetails.getId());
-            auction.setCurrentBidderName(bidder.get().getName());
-            auction.getBids().add(savedBid);
-            auction.setUpdatedAt(LocalDateTime.now());
+            Map<String, Object> response = new HashMap<>();
+            response.put("auctionId", maxBidRequest.getAuctionId());
+            response.put("maxAmount", maxBidRequest.getMaxAmount());
+            response.put("currentBid", result.getAuction().getCurrentBid());
+            response.put("leading", userDetails.getId().equals(result.getAuction().getCurrentBidderId()));
+            return ResponseEntity.ok(response);
             
-            auctionRepository.save(auction);
-            
-            // Notify clients about the new bid via WebSocket
-            webSocketService.notifyBidPlaced(auction);
+        } catch (TimeoutException e) {
+            return outcomeUnknown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return outcomeUnknown();
+        } catch (ExecutionException e) {
+            return failure(e);
+        }
+    }
+
+    @DeleteMapping("/max/{auctionId}")
+    public ResponseEntity<?> cancelMaxBid(
+            @PathVariable String auctionId,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        
+        try {
+            boolean cancelled = bidEngine.cancelMaxBid(auctionId, userDetails.getId())
+                    .get(bidTimeoutMs, TimeUnit.MILLISECONDS);
+            if (!cancelled) {
+                return ResponseEntity.notFound().build();
+            }
             
-            return ResponseEntity.ok(savedBid);
+            return ResponseEntity.ok("Maximum bid cancelled successfully");
             
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        } catch (TimeoutException e) {
+            return outcomeUnknown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return outcomeUnknown();
+        } catch (ExecutionException e) {
+            return failure(e);
+        }
+    }
+
+    // The bid is still queued on its shard and may yet be accepted and broadcast
+    private ResponseEntity<?> outcomeUnknown() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body("Error: The bid is still being processed, its outcome is not known yet");
+    }
+    
+    private ResponseEntity<?> failure(ExecutionException e) {
+        Throwable cause = e.getCause();
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return ResponseEntity.internalServerError().body("Error: " + cause.getMessage());
+    }
+    
+    private int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, maxPageSize));
+    }
+    
+    private PageCursor cursorOf(Bid bid) {
+        return new PageCursor(BidRepositoryCustom.TIMESTAMP_SORT, bid.getTimestamp().toString(), bid.getId());
+    }
+    
+    private ResponseEntity<?> refusal(BidAdmissionControl.Decision decision) {
+        if (decision.getOutcome() == BidAdmissionControl.Outcome.BELOW_PRICE) {
+            return rejection(BidResult.Status.BID_TOO_LOW);
+        }
+        
+        long retryAfterMs = decision.getRetryAfterMs();
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMs + 999) / 1000))
+                .header("X-Retry-After-Ms", String.valueOf(retryAfterMs))
+                .body("Error: Too many bids, please retry in " + retryAfterMs + " ms");
+    }
+
+    private ResponseEntity<?> rejection(BidResult.Status status) {
+        switch (status) {
+            case AUCTION_NOT_FOUND:
+                return ResponseEntity.badRequest().body("Error: Auction not found");
+            case AUCTION_NOT_ACTIVE:
+                return ResponseEntity.badRequest().body("Error: This auction is not active");
+            case AUCTION_ENDED:
+                return ResponseEntity.badRequest().body("Error: This auction has ended");
+            case BID_TOO_LOW:
+                return ResponseEntity.badRequest().body("Error: Bid amount must be higher than current bid");
+            case OUTBID:
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: A higher bid was placed first");
+            case OWN_AUCTION:
+                return ResponseEntity.badRequest().body("Error: You cannot bid on your own item");
+            default:
+                return ResponseEntity.badRequest().body("Error: Bid rejected");
         }
     }
 }
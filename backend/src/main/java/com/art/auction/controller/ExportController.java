@@ -0,0 +1,90 @@
+
+package com.art.auction.controller;
+
+import com.art.auction.model.Auction;
+import com.art.auction.model.Message;
+import com.art.auction.service.ExportService;
+import com.art.auction.service.ExportService.ExportFormat;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Callable;
+
+@RestController
+@RequestMapping("/admin/export")
+@PreAuthorize("hasRole('ROLE_ADMIN')")
+public class ExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    @Autowired
+    private ExportService exportService;
+
+    // Exports outlive the app-wide async timeout; zero or less lets them run until done
+    @Value("${app.export.timeout-ms:3600000}")
+    private long timeoutMs;
+
+    @GetMapping("/bids")
+    public ResponseEntity<StreamingResponseBody> exportBids(
+            @RequestParam(required = false) String auctionId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            HttpServletRequest request) {
+        return stream(request, "bids", format, out -> exportService.exportBids(auctionId, from, to, format, out));
+    }
+
+    @GetMapping("/auctions")
+    public ResponseEntity<StreamingResponseBody> exportAuctions(
+            @RequestParam(required = false) Auction.AuctionStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            HttpServletRequest request) {
+        return stream(request, "auctions", format, out -> exportService.exportAuctions(status, from, to, format, out));
+    }
+
+    @GetMapping("/messages")
+    public ResponseEntity<StreamingResponseBody> exportMessages(
+            @RequestParam(required = false) Message.MessageType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            HttpServletRequest request) {
+        return stream(request, "messages", format, out -> exportService.exportMessages(type, from, to, format, out));
+    }
+
+    // The body is written after the handler returns, on the async request thread
+    private ResponseEntity<StreamingResponseBody> stream(HttpServletRequest request, String name,
+                                                         ExportFormat format, StreamingResponseBody body) {
+        // Applies to this request only, just before its async processing starts
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ExportController.class,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                        ((AsyncWebRequest) webRequest).setTimeout(timeoutMs);
+                    }
+                });
+        String filename = name + (format == ExportFormat.CSV ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(format == ExportFormat.CSV ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,23 @@
+
+package com.art.auction.controller;
+
+import com.art.auction.dto.MarketplaceStatsView;
+import com.art.auction.service.MarketplaceStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/stats")
+@PreAuthorize("hasRole('ROLE_ADMIN')")
+public class StatsController {
+
+    @Autowired
+    private MarketplaceStats marketplaceStats;
+
+    @GetMapping
+    public ResponseEntity<MarketplaceStatsView> getStats() {
+        return ResponseEntity.ok(marketplaceStats.snapshot());
+    }
+}
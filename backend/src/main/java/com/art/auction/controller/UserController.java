@@ -1,10 +1,15 @@
 
 package com.art.auction.controller;
 
+import com.art.auction.dto.CursorPage;
+import com.art.auction.dto.PageCursor;
+import com.art.auction.dto.UserSummary;
 import com.art.auction.model.User;
 import com.art.auction.repository.UserRepository;
+import com.art.auction.repository.UserRepositoryCustom;
 import com.art.auction.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -22,6 +27,9 @@ public class UserController {
 
     @Autowired
     private UserRepository userRepository;
+    
+    @Value("${app.pagination.max-page-size:100}")
+    private int maxPageSize;
 
     @GetMapping("/profile")
     public ResponseEntity<?> getUserProfile(@AuthenticationPrincipal UserDetailsImpl userDetails) {
@@ -44,13 +52,21 @@ public class UserController {
 
     @GetMapping
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        
-        // Remove password from response
-        users.forEach(user -> user.setPassword(null));
-        
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> getAllUsers(
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) User.Role role,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            PageCursor after = PageCursor.decode(cursor, UserRepositoryCustom.EMAIL_SORT);
+            int size = pageSize(limit);
+            List<UserSummary> users = userRepository.findUserSummaries(active, role, q, after, size);
+            return ResponseEntity.ok(CursorPage.of(users, size,
+                    user -> new PageCursor(UserRepositoryCustom.EMAIL_SORT, user.getEmail(), user.getId())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
     }
 
     @PutMapping("/{id}/toggle-status")
@@ -109,4 +125,8 @@ public class UserController {
         
         return ResponseEntity.ok("Profile updated successfully");
     }
+    
+    private int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, maxPageSize));
+    }
 }
@@ -0,0 +1,28 @@
+
+package com.art.auction.dto;
+
+import com.art.auction.model.Auction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Sent when an auction leaves ACTIVE, ended or cancelled
+@Getter
+@AllArgsConstructor
+public class AuctionEndedUpdate {
+    
+    private final long epoch;
+    
+    private final long seq;
+    
+    private final String auctionId;
+    
+    private final String auctionName;
+    
+    private final Auction.AuctionStatus status;
+    
+    private final double finalBid;
+    
+    private final String winnerId;
+    
+    private final String winnerName;
+}
@@ -0,0 +1,27 @@
+
+package com.art.auction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// Sent to the auction's topic when soft close moves its end time
+@Getter
+@AllArgsConstructor
+public class AuctionExtendedUpdate {
+    
+    private final long epoch;
+    
+    private final long seq;
+    
+    private final String auctionId;
+    
+    private final String auctionName;
+    
+    private final LocalDateTime endTime;
+    
+    public String getType() {
+        return "AUCTION_EXTENDED";
+    }
+}
@@ -24,5 +24,15 @@ public class AuctionRequest {
     @Min(value = 1, message = "Duration must be at least 1 hour")
     private Integer durationHours;
     
+    // Optional anti-sniping rule; leave the window empty or 0 to disable it
+    @Min(value = 0, message = "Soft close window cannot be negative")
+    private Integer softCloseWindowSeconds;
+    
+    @Min(value = 0, message = "Soft close extension cannot be negative")
+    private Integer softCloseExtensionSeconds;
+    
+    @Min(value = 0, message = "Soft close cap cannot be negative")
+    private Integer softCloseMaxExtensionSeconds;
+    
     // The image will be handled separately in multipart form
 }
@@ -0,0 +1,37 @@
+
+package com.art.auction.dto;
+
+import com.art.auction.model.Auction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// Full current state, sent on resume to a client too far behind for its missed events to be replayed
+@Getter
+@AllArgsConstructor
+public class AuctionSnapshot {
+    
+    // Events up to seq are reflected here; later ones follow as usual
+    private final long epoch;
+    
+    private final long seq;
+    
+    private final String auctionId;
+    
+    private final String auctionName;
+    
+    private final double currentBid;
+    
+    private final String bidderName;
+    
+    private final int bidCount;
+    
+    private final LocalDateTime endTime;
+    
+    private final Auction.AuctionStatus status;
+    
+    public String getType() {
+        return "SNAPSHOT";
+    }
+}
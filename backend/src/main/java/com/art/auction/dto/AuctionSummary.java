@@ -0,0 +1,41 @@
+
+package com.art.auction.dto;
+
+import com.art.auction.model.Auction;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// What a listing card shows; read from Mongo with a field projection, the full document is only on GET /auctions/{id}
+@Data
+public class AuctionSummary {
+    
+    // Fields to project when reading summaries straight from the auctions collection
+    public static final String[] FIELDS = {"name", "imageUrl", "currentBid", "endTime", "status", "createdAt"};
+    
+    private String id;
+    
+    private String name;
+    
+    private String imageUrl;
+    
+    private double currentBid;
+    
+    private LocalDateTime endTime;
+    
+    private Auction.AuctionStatus status;
+    
+    private LocalDateTime createdAt;
+    
+    public static AuctionSummary from(Auction auction) {
+        AuctionSummary summary = new AuctionSummary();
+        summary.setId(auction.getId());
+        summary.setName(auction.getName());
+        summary.setImageUrl(auction.getImageUrl());
+        summary.setCurrentBid(auction.getCurrentBid());
+        summary.setEndTime(auction.getEndTime());
+        summary.setStatus(auction.getStatus());
+        summary.setCreatedAt(auction.getCreatedAt());
+        return summary;
+    }
+}
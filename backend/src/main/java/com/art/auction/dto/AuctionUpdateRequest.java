@@ -0,0 +1,16 @@
+
+package com.art.auction.dto;
+
+import lombok.Data;
+
+import jakarta.validation.constraints.Size;
+
+// Fields a seller may change on a running auction; null leaves a field as it is
+@Data
+public class AuctionUpdateRequest {
+    
+    @Size(min = 1, message = "Name cannot be empty")
+    private String name;
+    
+    private String description;
+}
@@ -0,0 +1,24 @@
+
+package com.art.auction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Sent on a new high bid, to the auction's topic and to sessions listing the auction
+@Getter
+@AllArgsConstructor
+public class BidUpdate {
+    
+    // Server run the sequence belongs to, and this event's position among the auction's events
+    private final long epoch;
+    
+    private final long seq;
+    
+    private final String auctionId;
+    
+    private final String auctionName;
+    
+    private final double currentBid;
+    
+    private final String bidderName;
+}
@@ -0,0 +1,27 @@
+
+package com.art.auction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a keyset-paginated listing; nextCursor is null on the last page
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    private final List<T> items;
+    
+    private final String nextCursor;
+    
+    // Builds a page from up to limit + 1 fetched items, the extra one only signalling that more follow
+    public static <T> CursorPage<T> of(List<T> fetched, int limit, Function<T, PageCursor> cursorOf) {
+        if (fetched.size() <= limit) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, limit);
+        return new CursorPage<>(items, cursorOf.apply(items.get(limit - 1)).encode());
+    }
+}
@@ -0,0 +1,13 @@
+
+package com.art.auction.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+// The auctions a connection wants live updates for; replaces whatever it registered before
+@Data
+public class InterestRequest {
+    
+    private List<String> auctionIds;
+}
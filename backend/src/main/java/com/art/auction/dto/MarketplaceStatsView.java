@@ -0,0 +1,59 @@
+
+package com.art.auction.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Admin dashboard figures; GMV is the sum of winning bids on auctions that ended sold
+@Data
+public class MarketplaceStatsView {
+    
+    private long activeAuctions;
+    
+    private long totalBids;
+    
+    private long auctionsCreated;
+    
+    private long auctionsSold;
+    
+    private long auctionsUnsold;
+    
+    private long auctionsCancelled;
+    
+    private double gmv;
+    
+    private long bidsLastHour;
+    
+    private long bidsLast24Hours;
+    
+    private double gmvLast24Hours;
+    
+    // Oldest hour first, one entry per hour including empty ones
+    private List<Hour> hourly;
+    
+    private List<Seller> topSellers;
+    
+    @Data
+    public static class Hour {
+        
+        private LocalDateTime start;
+        
+        private long bids;
+        
+        private double gmv;
+    }
+    
+    @Data
+    public static class Seller {
+        
+        private String sellerId;
+        
+        private String sellerName;
+        
+        private long auctionsSold;
+        
+        private double gmv;
+    }
+}
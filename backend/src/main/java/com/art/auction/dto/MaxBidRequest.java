@@ -0,0 +1,18 @@
+
+package com.art.auction.dto;
+
+import lombok.Data;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+@Data
+public class MaxBidRequest {
+    
+    @NotNull(message = "Auction ID is required")
+    private String auctionId;
+    
+    @NotNull(message = "Maximum bid is required")
+    @Min(value = 1, message = "Maximum bid must be at least 1")
+    private Double maxAmount;
+}
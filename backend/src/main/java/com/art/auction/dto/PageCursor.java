@@ -0,0 +1,42 @@
+
+package com.art.auction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Position after the last item of a page: its sort key and id, under the sort that produced it
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+    
+    private final String sort;
+    
+    private final String key;
+    
+    private final String id;
+    
+    public String encode() {
+        String raw = sort + "\n" + key + "\n" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // Returns null for no cursor; rejects cursors that are malformed or were issued for another sort
+    public static PageCursor decode(String value, String expectedSort) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split("\n", -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 3 || !parts[0].equals(expectedSort)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new PageCursor(parts[0], parts[1], parts[2]);
+    }
+}
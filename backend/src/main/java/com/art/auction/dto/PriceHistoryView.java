@@ -0,0 +1,19 @@
+
+package com.art.auction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Price chart points as parallel arrays: times[i] (epoch millis) and prices[i]; totalPoints is the size before downsampling
+@Getter
+@AllArgsConstructor
+public class PriceHistoryView {
+    
+    private final String auctionId;
+    
+    private final int totalPoints;
+    
+    private final long[] times;
+    
+    private final double[] prices;
+}
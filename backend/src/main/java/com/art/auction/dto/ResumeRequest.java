@@ -0,0 +1,15 @@
+
+package com.art.auction.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+// Sent by a reconnecting client: the epoch it last saw and, per auction, the last sequence number it received
+@Data
+public class ResumeRequest {
+    
+    private Long epoch;
+    
+    private Map<String, Long> auctions;
+}
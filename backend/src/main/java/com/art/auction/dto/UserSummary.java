@@ -0,0 +1,26 @@
+
+package com.art.auction.dto;
+
+import com.art.auction.model.User;
+import lombok.Data;
+
+import java.util.Set;
+
+// A row of the admin user listing; read with a field projection so the password hash never leaves Mongo
+@Data
+public class UserSummary {
+    
+    public static final String[] FIELDS = {"name", "email", "roles", "active", "createdAt"};
+    
+    private String id;
+    
+    private String name;
+    
+    private String email;
+    
+    private Set<User.Role> roles;
+    
+    private boolean active;
+    
+    private String createdAt;
+}
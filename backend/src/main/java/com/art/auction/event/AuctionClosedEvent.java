@@ -0,0 +1,14 @@
+
+package com.art.auction.event;
+
+import com.art.auction.model.Auction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published once an auction has left ACTIVE, either ENDED or CANCELLED
+@Getter
+@AllArgsConstructor
+public class AuctionClosedEvent {
+    
+    private final Auction auction;
+}
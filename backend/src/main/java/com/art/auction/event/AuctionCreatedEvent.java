@@ -0,0 +1,13 @@
+
+package com.art.auction.event;
+
+import com.art.auction.model.Auction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class AuctionCreatedEvent {
+    
+    private final Auction auction;
+}
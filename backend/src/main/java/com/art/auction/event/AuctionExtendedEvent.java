@@ -0,0 +1,14 @@
+
+package com.art.auction.event;
+
+import com.art.auction.model.Auction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published when a soft-close bid has moved the auction's end time
+@Getter
+@AllArgsConstructor
+public class AuctionExtendedEvent {
+    
+    private final Auction auction;
+}
@@ -0,0 +1,14 @@
+
+package com.art.auction.event;
+
+import com.art.auction.model.Auction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published on the auction's bid engine shard after a seller edit has been written
+@Getter
+@AllArgsConstructor
+public class AuctionUpdatedEvent {
+    
+    private final Auction auction;
+}
@@ -0,0 +1,19 @@
+
+package com.art.auction.event;
+
+import com.art.auction.model.Auction;
+import com.art.auction.model.Bid;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published on the auction's bid engine shard once the database has the bid (or, in ACK_AFTER_ENQUEUE
+// mode, once it is queued, the journal making it durable)
+@Getter
+@AllArgsConstructor
+public class BidAcceptedEvent {
+    
+    private final Bid bid;
+    
+    // Auction state with the bid applied
+    private final Auction auction;
+}
@@ -0,0 +1,13 @@
+package com.art.auction.event;
+
+import com.art.auction.model.Bid;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published in ACK_AFTER_ENQUEUE mode when the database refuses a bid already announced by BidAcceptedEvent
+@Getter
+@AllArgsConstructor
+public class BidRefusedEvent {
+    
+    private final Bid bid;
+}
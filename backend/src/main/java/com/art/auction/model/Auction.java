@@ -3,6 +3,8 @@ package com.art.auction.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -11,6 +13,16 @@ import java.util.List;
 
 @Data
 @Document(collection = "auctions")
+@CompoundIndexes({
+    // Active listings in each sort order, and the close sweep
+    @CompoundIndex(name = "status_endTime", def = "{'status': 1, 'endTime': 1, '_id': 1}"),
+    @CompoundIndex(name = "status_currentBid", def = "{'status': 1, 'currentBid': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_createdAt", def = "{'status': 1, 'createdAt': -1, '_id': -1}"),
+    // Seller listings
+    @CompoundIndex(name = "sellerId_createdAt", def = "{'sellerId': 1, 'createdAt': -1, '_id': -1}"),
+    // Admin exports by time range
+    @CompoundIndex(name = "createdAt", def = "{'createdAt': 1, '_id': 1}")
+})
 public class Auction {
     
     @Id
@@ -34,16 +46,31 @@ public class Auction {
     
     private String imageUrl;
     
-    private List<Bid> bids = new ArrayList<>();
+    // Total number of accepted bids; the full history lives in the bids collection
+    private int bidCount;
+    
+    // Most recent bids only, capped at app.auction.recent-bids entries
+    private List<Bid> recentBids = new ArrayList<>();
     
     private AuctionStatus status = AuctionStatus.ACTIVE;
     
     private LocalDateTime endTime;
     
+    // Soft close: a bid in the last softCloseWindowSeconds pushes endTime out by
+    // softCloseExtensionSeconds, never past softCloseMaxEndTime. A zero window disables it.
+    private int softCloseWindowSeconds;
+    
+    private int softCloseExtensionSeconds;
+    
+    private LocalDateTime softCloseMaxEndTime;
+    
     private LocalDateTime createdAt;
     
     private LocalDateTime updatedAt;
     
+    // Incremented by every conditional write (bids and status changes)
+    private long version;
+    
     // Enum for auction status
     public enum AuctionStatus {
         ACTIVE,
@@ -3,12 +3,21 @@ package com.art.auction.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Data
 @Document(collection = "bids")
+@CompoundIndexes({
+    // Bid history per auction and per bidder, newest first
+    @CompoundIndex(name = "auctionId_timestamp", def = "{'auctionId': 1, 'timestamp': -1, '_id': -1}"),
+    @CompoundIndex(name = "bidderId_timestamp", def = "{'bidderId': 1, 'timestamp': -1, '_id': -1}"),
+    // Admin exports by time range
+    @CompoundIndex(name = "timestamp", def = "{'timestamp': 1, '_id': 1}")
+})
 public class Bid {
     
     @Id
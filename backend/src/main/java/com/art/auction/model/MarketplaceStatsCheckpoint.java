@@ -0,0 +1,46 @@
+
+package com.art.auction.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Last saved copy of the in-memory marketplace totals, restored on startup
+@Data
+@Document(collection = "marketplace_stats")
+public class MarketplaceStatsCheckpoint {
+    
+    @Id
+    private String id;
+    
+    private long totalBids;
+    
+    private long auctionsCreated;
+    
+    private long auctionsSold;
+    
+    private long auctionsUnsold;
+    
+    private long auctionsCancelled;
+    
+    private double gmv;
+    
+    private List<Hour> hours = new ArrayList<>();
+    
+    private LocalDateTime updatedAt;
+    
+    @Data
+    public static class Hour {
+        
+        // Hours since the epoch, UTC
+        private long hour;
+        
+        private long bids;
+        
+        private double gmv;
+    }
+}
@@ -0,0 +1,29 @@
+
+package com.art.auction.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "max_bids")
+public class MaxBid {
+    
+    @Id
+    private String id;
+    
+    @Indexed
+    private String auctionId;
+    
+    private String bidderId;
+    
+    private String bidderName;
+    
+    private double maxAmount;
+    
+    // Earlier max bids win ties
+    private LocalDateTime createdAt;
+}
@@ -3,12 +3,21 @@ package com.art.auction.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Data
 @Document(collection = "messages")
+@CompoundIndexes({
+    // Inbox, newest first, and the unread filter
+    @CompoundIndex(name = "recipientId_timestamp", def = "{'recipientId': 1, 'timestamp': -1}"),
+    @CompoundIndex(name = "recipientId_read_timestamp", def = "{'recipientId': 1, 'read': 1, 'timestamp': -1}"),
+    // Admin exports by time range
+    @CompoundIndex(name = "timestamp", def = "{'timestamp': 1, '_id': 1}")
+})
 public class Message {
     
     @Id
@@ -0,0 +1,21 @@
+
+package com.art.auction.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// Running sales totals for one seller; the id is the seller's user id
+@Data
+@Document(collection = "seller_stats")
+public class SellerStats {
+    
+    @Id
+    private String id;
+    
+    private String sellerName;
+    
+    private long auctionsSold;
+    
+    private double gmv;
+}
@@ -3,6 +3,9 @@ package com.art.auction.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.HashSet;
@@ -10,13 +13,20 @@ import java.util.Set;
 
 @Data
 @Document(collection = "users")
+@CompoundIndexes({
+    // Admin listing in email order, filtered by status or role
+    @CompoundIndex(name = "active_email", def = "{'active': 1, 'email': 1}"),
+    @CompoundIndex(name = "roles_email", def = "{'roles': 1, 'email': 1}")
+})
 public class User {
     
     @Id
     private String id;
     
+    @Indexed
     private String name;
     
+    @Indexed(unique = true)
     private String email;
     
     private String password;
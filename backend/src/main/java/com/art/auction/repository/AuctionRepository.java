@@ -3,19 +3,20 @@ package com.art.auction.repository;
 
 import com.art.auction.model.Auction;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface AuctionRepository extends MongoRepository<Auction, String> {
+public interface AuctionRepository extends MongoRepository<Auction, String>, AuctionRepositoryCustom {
     
-    List<Auction> findBySellerId(String sellerId);
-    
-    List<Auction> findByStatus(Auction.AuctionStatus status);
+    List<Auction> findByEndTimeAfterAndStatus(LocalDateTime dateTime, Auction.AuctionStatus status);
     
-    List<Auction> findByEndTimeBefore(LocalDateTime dateTime);
+    @Query(value = "{ 'status': ?0, 'endTime': { '$lt': ?1 } }", fields = "{ '_id': 1 }")
+    List<Auction> findIdsByStatusAndEndTimeBefore(Auction.AuctionStatus status, LocalDateTime dateTime);
     
-    List<Auction> findByEndTimeAfterAndStatus(LocalDateTime dateTime, Auction.AuctionStatus status);
+    @Query(value = "{ 'status': ?0 }", fields = "{ 'endTime': 1 }")
+    List<Auction> findEndTimesByStatus(Auction.AuctionStatus status);
 }
@@ -0,0 +1,39 @@
+
+package com.art.auction.repository;
+
+import com.art.auction.dto.AuctionSummary;
+import com.art.auction.dto.PageCursor;
+import com.art.auction.model.Auction;
+import com.art.auction.model.Bid;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface AuctionRepositoryCustom {
+    
+    // Applies each auction's bids (in acceptance order), and the soft-close end times they moved it to,
+    // with one bulk write; only auctions that are active, not expired and priced below the last bid
+    // are updated. Returns the ids that did not apply.
+    Set<String> applyBids(Map<String, List<Bid>> bidsByAuction, Map<String, List<LocalDateTime>> extensionsByAuction);
+    
+    // Keyset pages of summaries: up to limit + 1 after the cursor, the extra one marking that more follow
+    List<AuctionSummary> findActiveSummaries(AuctionSort sort, PageCursor after, int limit);
+    
+    List<AuctionSummary> findSellerSummaries(String sellerId, AuctionSort sort, PageCursor after, int limit);
+    
+    // Applies a seller edit if the auction is ACTIVE and still at the expected version, and returns the
+    // edited auction (without its recent bids); empty otherwise
+    Optional<Auction> updateDetails(String auctionId, long expectedVersion, String name, String description);
+    
+    // Ends every listed auction that is still ACTIVE and past its end time with one update, and
+    // returns the auctions this call ended (without their recent bids)
+    List<Auction> endAuctions(Collection<String> auctionIds);
+    
+    // Moves an ACTIVE auction to the given status and returns it, or empty if it was not active.
+    // ENDED is only applied once the end time has passed.
+    Optional<Auction> closeAuction(String auctionId, Auction.AuctionStatus status);
+}
@@ -0,0 +1,210 @@
+
+package com.art.auction.repository;
+
+import com.art.auction.dto.AuctionSummary;
+import com.art.auction.dto.PageCursor;
+import com.art.auction.model.Auction;
+import com.art.auction.model.Bid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class AuctionRepositoryCustomImpl implements AuctionRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${app.auction.recent-bids:10}")
+    private int recentBidLimit;
+
+    @Override
+    public Set<String> applyBids(Map<String, List<Bid>> bidsByAuction, Map<String, List<LocalDateTime>> extensionsByAuction) {
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Auction.class);
+        
+        bidsByAuction.forEach((auctionId, bids) -> {
+            // Only the last bid sets the price; the rest just count towards history
+            Bid last = bids.get(bids.size() - 1);
+            List<LocalDateTime> extensions = extensionsByAuction.getOrDefault(auctionId, List.of());
+            // Bids after an extension in this batch may be past the stored end; the first bid never is
+            Bid checked = extensions.isEmpty() ? last : bids.get(0);
+            Query query = new Query(Criteria.where("_id").is(auctionId)
+                    .and("status").is(Auction.AuctionStatus.ACTIVE)
+                    .and("endTime").gt(checked.getTimestamp())
+                    .and("currentBid").lt(last.getAmount()));
+            
+            Update update = new Update()
+                    .set("currentBid", last.getAmount())
+                    .set("currentBidderId", last.getBidderId())
+                    .set("currentBidderName", last.getBidderName())
+                    .set("updatedAt", last.getTimestamp())
+                    .inc("bidCount", bids.size())
+                    .inc("version", bids.size() + extensions.size());
+            if (!extensions.isEmpty()) {
+                update.max("endTime", Collections.max(extensions));
+            }
+            List<Bid> recent = bids.subList(Math.max(0, bids.size() - recentBidLimit), bids.size());
+            update.push("recentBids").slice(-recentBidLimit).each(recent.toArray());
+            
+            operations.updateOne(query, update);
+        });
+        
+        if (operations.execute().getMatchedCount() == bidsByAuction.size()) {
+            return Set.of();
+        }
+        
+        // Rare path: find out which auctions did not take their last bid
+        Query check = new Query(Criteria.where("_id").in(bidsByAuction.keySet()));
+        check.fields().include("currentBid", "currentBidderId");
+        
+        Set<String> rejected = new HashSet<>(bidsByAuction.keySet());
+        for (Auction auction : mongoTemplate.find(check, Auction.class)) {
+            List<Bid> bids = bidsByAuction.get(auction.getId());
+            Bid last = bids.get(bids.size() - 1);
+            if (auction.getCurrentBid() == last.getAmount() && last.getBidderId().equals(auction.getCurrentBidderId())) {
+                rejected.remove(auction.getId());
+            }
+        }
+        return rejected;
+    }
+
+    @Override
+    public List<AuctionSummary> findActiveSummaries(AuctionSort sort, PageCursor after, int limit) {
+        Criteria active = Criteria.where("status").is(Auction.AuctionStatus.ACTIVE)
+                .and("endTime").gt(LocalDateTime.now());
+        return findPage(active, sort, after, limit);
+    }
+
+    @Override
+    public List<AuctionSummary> findSellerSummaries(String sellerId, AuctionSort sort, PageCursor after, int limit) {
+        return findPage(Criteria.where("sellerId").is(sellerId), sort, after, limit);
+    }
+
+    private List<AuctionSummary> findPage(Criteria filter, AuctionSort sort, PageCursor after, int limit) {
+        Query query = new Query();
+        if (after == null) {
+            query.addCriteria(filter);
+        } else {
+            // Strictly after (key, id) in sort order, so the index on the sort key does the skipping.
+            // A missing key sorts as null: first ascending, last descending, and no range operator reaches it.
+            Object key = sort.parseKey(after.getKey());
+            String field = sort.getField();
+            Criteria window;
+            if (sort.getDirection() == Sort.Direction.ASC) {
+                Criteria beyond = key == null ? Criteria.where(field).ne(null) : Criteria.where(field).gt(key);
+                Criteria tied = Criteria.where(field).is(key).and("_id").gt(after.getId());
+                window = new Criteria().orOperator(beyond, tied);
+            } else {
+                Criteria tied = Criteria.where(field).is(key).and("_id").lt(after.getId());
+                window = key == null ? tied : new Criteria().orOperator(
+                        Criteria.where(field).lt(key), Criteria.where(field).is(null), tied);
+            }
+            query.addCriteria(new Criteria().andOperator(filter, window));
+        }
+        query.with(sort.toSort()).limit(limit + 1);
+        // Only the card fields come back from the server and get decoded
+        query.fields().include(AuctionSummary.FIELDS);
+        return mongoTemplate.find(query, AuctionSummary.class, mongoTemplate.getCollectionName(Auction.class));
+    }
+
+    @Override
+    public Optional<Auction> updateDetails(String auctionId, long expectedVersion, String name, String description) {
+        Query query = new Query(Criteria.where("_id").is(auctionId)
+                .and("status").is(Auction.AuctionStatus.ACTIVE)
+                .and("version").is(expectedVersion));
+        query.fields().exclude("recentBids");
+        
+        Update update = new Update()
+                .set("updatedAt", LocalDateTime.now())
+                .inc("version", 1);
+        if (name != null) {
+            update.set("name", name);
+        }
+        if (description != null) {
+            update.set("description", description);
+        }
+        
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query, update, FindAndModifyOptions.options().returnNew(true), Auction.class));
+    }
+
+    @Override
+    public List<Auction> endAuctions(Collection<String> auctionIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Query due = new Query(Criteria.where("_id").in(auctionIds)
+                .and("status").is(Auction.AuctionStatus.ACTIVE)
+                .and("endTime").lte(now));
+        due.fields().exclude("recentBids");
+        
+        List<Auction> ended = mongoTemplate.find(due, Auction.class);
+        if (ended.isEmpty()) {
+            return ended;
+        }
+        
+        Set<String> endedIds = new HashSet<>();
+        ended.forEach(auction -> endedIds.add(auction.getId()));
+        Query flip = new Query(Criteria.where("_id").in(endedIds)
+                .and("status").is(Auction.AuctionStatus.ACTIVE)
+                .and("endTime").lte(now));
+        
+        Update update = new Update()
+                .set("status", Auction.AuctionStatus.ENDED)
+                .set("updatedAt", now)
+                .inc("version", 1);
+        
+        long modified = mongoTemplate.updateMulti(flip, update, Auction.class).getModifiedCount();
+        if (modified < ended.size()) {
+            // Rare path: something else closed some of them in between; keep only the ones flipped here
+            Query check = new Query(Criteria.where("_id").in(endedIds)
+                    .and("status").is(Auction.AuctionStatus.ENDED)
+                    .and("updatedAt").is(now));
+            check.fields().include("_id");
+            
+            Set<String> flipped = new HashSet<>();
+            mongoTemplate.find(check, Auction.class).forEach(auction -> flipped.add(auction.getId()));
+            ended.removeIf(auction -> !flipped.contains(auction.getId()));
+        }
+        
+        for (Auction auction : ended) {
+            auction.setStatus(Auction.AuctionStatus.ENDED);
+            auction.setUpdatedAt(now);
+            auction.setVersion(auction.getVersion() + 1);
+        }
+        return ended;
+    }
+
+    @Override
+    public Optional<Auction> closeAuction(String auctionId, Auction.AuctionStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        Criteria criteria = Criteria.where("_id").is(auctionId)
+                .and("status").is(Auction.AuctionStatus.ACTIVE);
+        if (status == Auction.AuctionStatus.ENDED) {
+            // A soft-close extension may have moved the end after the close was scheduled
+            criteria.and("endTime").lte(now);
+        }
+        Query query = new Query(criteria);
+        query.fields().exclude("recentBids");
+        
+        Update update = new Update()
+                .set("status", status)
+                .set("updatedAt", now)
+                .inc("version", 1);
+        
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query, update, FindAndModifyOptions.options().returnNew(true), Auction.class));
+    }
+}
@@ -0,0 +1,94 @@
+
+package com.art.auction.repository;
+
+import com.art.auction.dto.AuctionSummary;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+// Listing orders for auctions; each breaks ties on the id so keyset pages never skip or repeat
+public enum AuctionSort {
+    ENDING_SOONEST("endTime", Sort.Direction.ASC,
+            Comparator.comparing(AuctionSummary::getEndTime, Comparator.nullsFirst(Comparator.naturalOrder()))),
+    HIGHEST_PRICE("currentBid", Sort.Direction.DESC,
+            Comparator.comparingDouble(AuctionSummary::getCurrentBid)),
+    NEWEST("createdAt", Sort.Direction.DESC,
+            Comparator.comparing(AuctionSummary::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+    private final String field;
+
+    private final Sort.Direction direction;
+
+    private final Comparator<AuctionSummary> comparator;
+
+    // Nulls sort first ascending, as they do in Mongo
+    AuctionSort(String field, Sort.Direction direction, Comparator<AuctionSummary> keyOrder) {
+        this.field = field;
+        this.direction = direction;
+        Comparator<AuctionSummary> ascending = keyOrder.thenComparing(AuctionSummary::getId);
+        this.comparator = direction == Sort.Direction.ASC ? ascending : ascending.reversed();
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public Sort toSort() {
+        return Sort.by(direction, field).and(Sort.by(direction, "_id"));
+    }
+
+    public Comparator<AuctionSummary> comparator() {
+        return comparator;
+    }
+
+    public Object key(AuctionSummary auction) {
+        switch (this) {
+            case ENDING_SOONEST:
+                return auction.getEndTime();
+            case HIGHEST_PRICE:
+                return auction.getCurrentBid();
+            default:
+                return auction.getCreatedAt();
+        }
+    }
+
+    // Cursor form of an auction's sort key; an empty string stands for a missing key, which sorts as null
+    public String formatKey(AuctionSummary auction) {
+        Object key = key(auction);
+        return key == null ? "" : key.toString();
+    }
+
+    public Object parseKey(String value) {
+        if (value.isEmpty() && this != HIGHEST_PRICE) {
+            return null;
+        }
+        try {
+            return this == HIGHEST_PRICE ? Double.valueOf(value) : LocalDateTime.parse(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    // A summary that sorts exactly where the given key and id would, for searching a sorted listing
+    public AuctionSummary probe(Object key, String id) {
+        AuctionSummary probe = new AuctionSummary();
+        probe.setId(id);
+        switch (this) {
+            case ENDING_SOONEST:
+                probe.setEndTime((LocalDateTime) key);
+                break;
+            case HIGHEST_PRICE:
+                probe.setCurrentBid((Double) key);
+                break;
+            default:
+                probe.setCreatedAt((LocalDateTime) key);
+                break;
+        }
+        return probe;
+    }
+}
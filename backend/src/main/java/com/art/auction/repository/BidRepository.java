@@ -8,7 +8,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface BidRepository extends MongoRepository<Bid, String> {
+public interface BidRepository extends MongoRepository<Bid, String>, BidRepositoryCustom {
     
     List<Bid> findByAuctionId(String auctionId);
     
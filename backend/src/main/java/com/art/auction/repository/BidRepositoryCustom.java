@@ -0,0 +1,18 @@
+
+package com.art.auction.repository;
+
+import com.art.auction.dto.PageCursor;
+import com.art.auction.model.Bid;
+
+import java.util.List;
+
+public interface BidRepositoryCustom {
+    
+    // Name bid cursors are issued under
+    String TIMESTAMP_SORT = "TIMESTAMP";
+    
+    // Keyset pages, newest bid first: up to limit + 1 bids after the cursor, the extra one marking that more follow
+    List<Bid> findAuctionBidsPage(String auctionId, PageCursor after, int limit);
+    
+    List<Bid> findBidderBidsPage(String bidderId, PageCursor after, int limit);
+}
@@ -0,0 +1,49 @@
+
+package com.art.auction.repository;
+
+import com.art.auction.dto.PageCursor;
+import com.art.auction.model.Bid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class BidRepositoryCustomImpl implements BidRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Bid> findAuctionBidsPage(String auctionId, PageCursor after, int limit) {
+        return findPage(Criteria.where("auctionId").is(auctionId), after, limit);
+    }
+
+    @Override
+    public List<Bid> findBidderBidsPage(String bidderId, PageCursor after, int limit) {
+        return findPage(Criteria.where("bidderId").is(bidderId), after, limit);
+    }
+
+    private List<Bid> findPage(Criteria filter, PageCursor after, int limit) {
+        Query query = new Query();
+        if (after == null) {
+            query.addCriteria(filter);
+        } else {
+            LocalDateTime timestamp;
+            try {
+                timestamp = LocalDateTime.parse(after.getKey());
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Criteria older = Criteria.where("timestamp").lt(timestamp);
+            Criteria tied = Criteria.where("timestamp").is(timestamp).and("_id").lt(after.getId());
+            query.addCriteria(new Criteria().andOperator(filter, new Criteria().orOperator(older, tied)));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "timestamp").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(limit + 1);
+        return mongoTemplate.find(query, Bid.class);
+    }
+}
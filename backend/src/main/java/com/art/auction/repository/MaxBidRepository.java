@@ -0,0 +1,19 @@
+
+package com.art.auction.repository;
+
+import com.art.auction.model.MaxBid;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MaxBidRepository extends MongoRepository<MaxBid, String> {
+    
+    List<MaxBid> findByAuctionId(String auctionId);
+    
+    long deleteByAuctionId(String auctionId);
+    
+    long deleteByAuctionIdIn(Collection<String> auctionIds);
+}
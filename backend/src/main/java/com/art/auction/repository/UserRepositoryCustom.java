@@ -0,0 +1,18 @@
+
+package com.art.auction.repository;
+
+import com.art.auction.dto.PageCursor;
+import com.art.auction.dto.UserSummary;
+import com.art.auction.model.User;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+    
+    // Name user cursors are issued under
+    String EMAIL_SORT = "EMAIL";
+    
+    // Keyset page by email: up to limit + 1 users after the cursor, the extra one marking that more follow.
+    // Null filters are ignored; prefix matches the start of the email or the name, case-sensitively so the indexes apply.
+    List<UserSummary> findUserSummaries(Boolean active, User.Role role, String prefix, PageCursor after, int limit);
+}
@@ -0,0 +1,58 @@
+
+package com.art.auction.repository;
+
+import com.art.auction.dto.PageCursor;
+import com.art.auction.dto.UserSummary;
+import com.art.auction.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final Pattern REGEX_METACHARACTERS = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<UserSummary> findUserSummaries(Boolean active, User.Role role, String prefix, PageCursor after, int limit) {
+        List<Criteria> filters = new ArrayList<>();
+        if (active != null) {
+            filters.add(Criteria.where("active").is(active));
+        }
+        if (role != null) {
+            filters.add(Criteria.where("roles").is(role));
+        }
+        if (prefix != null && !prefix.isEmpty()) {
+            // An anchored, case-sensitive pattern becomes a range scan on the index
+            String pattern = "^" + escape(prefix);
+            filters.add(new Criteria().orOperator(
+                    Criteria.where("email").regex(pattern),
+                    Criteria.where("name").regex(pattern)));
+        }
+        if (after != null) {
+            // Emails are unique, so the email alone places the cursor
+            filters.add(Criteria.where("email").gt(after.getKey()));
+        }
+        
+        Query query = new Query();
+        if (!filters.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(filters));
+        }
+        query.with(Sort.by(Sort.Direction.ASC, "email")).limit(limit + 1);
+        query.fields().include(UserSummary.FIELDS);
+        return mongoTemplate.find(query, UserSummary.class, mongoTemplate.getCollectionName(User.class));
+    }
+    
+    // Backslash-escapes metacharacters; a \Q...\E quote would stop the server treating the pattern as a plain prefix
+    private static String escape(String literal) {
+        return REGEX_METACHARACTERS.matcher(literal).replaceAll("\\\\$0");
+    }
+}
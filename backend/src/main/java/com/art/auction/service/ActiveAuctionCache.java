@@ -0,0 +1,423 @@
+
+package com.art.auction.service;
+
+import com.art.auction.dto.AuctionSummary;
+import com.art.auction.event.AuctionClosedEvent;
+import com.art.auction.event.AuctionCreatedEvent;
+import com.art.auction.event.AuctionExtendedEvent;
+import com.art.auction.event.AuctionUpdatedEvent;
+import com.art.auction.event.BidAcceptedEvent;
+import com.art.auction.model.Auction;
+import com.art.auction.model.Bid;
+import com.art.auction.repository.AuctionRepository;
+import com.art.auction.repository.AuctionSort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-process copy of the active auction listing. It is loaded from Mongo in the background once
+ * the application is ready, and then kept current from auction and bid events rather than
+ * expiring on a timer; until a load finishes the listing is served from Mongo. Only what a listing
+ * shows is held, one summary per auction, replaced rather than modified, so a listing handed out
+ * never changes underneath its reader. Events only change the auction's own entry and mark the
+ * sorted listings out of date; a reader sorts a listing again once it has missed a change and is
+ * older than {@code listing-refresh-ms}, or once an auction in it runs out of time, so bids on
+ * different shards never queue behind one another here. If the active set outgrows
+ * {@code max-size} the cache drops everything and the listing falls back to Mongo until a later
+ * reload fits again.
+ */
+@Service
+public class ActiveAuctionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveAuctionCache.class);
+
+    @Autowired
+    private AuctionRepository auctionRepository;
+
+    @Autowired
+    private BidWriteBehind writeBehind;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.auction-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.auction-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.auction-cache.reload-retry-ms:60000}")
+    private long reloadRetryMs;
+
+    @Value("${app.auction-cache.listing-refresh-ms:200}")
+    private long listingRefreshMs;
+
+    @Value("${app.auction-cache.load-timeout-ms:30000}")
+    private long loadTimeoutMs;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Auctions closed while a load was reading Mongo, so the load cannot bring them back
+    private final Set<String> closedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean complete;
+
+    private volatile boolean loading;
+
+    // Sorted listings served to readers, one per sort. Rebuilds go through compute, so concurrent
+    // readers of one sort share a single rebuild.
+    private final Map<AuctionSort, Listing> listings = new ConcurrentHashMap<>();
+
+    // Moves on with every change to the entries; a listing built at an older value has missed one
+    private final AtomicLong changes = new AtomicLong();
+
+    private final AtomicBoolean loadInProgress = new AtomicBoolean();
+
+    private ExecutorService loader;
+
+    private volatile long lastLoadAttempt;
+
+    private Counter hits;
+
+    private Counter misses;
+
+    private Timer staleness;
+
+    @PostConstruct
+    public void start() {
+        hits = Counter.builder("auctions.cache.requests")
+                .description("Active auction listings served by the near-cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        misses = Counter.builder("auctions.cache.requests")
+                .description("Active auction listings served by the near-cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        staleness = Timer.builder("auctions.cache.staleness")
+                .description("Delay between a change to an auction and the cache reflecting it")
+                .register(meterRegistry);
+        meterRegistry.gauge("auctions.cache.size", entries, Map::size);
+        loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "auction-cache-load");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        loader.shutdownNow();
+    }
+
+    // Warms the cache once everything that writes auctions at startup has finished
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    /**
+     * Returns a summary of every active auction in the given order, or null when the cache is bypassed
+     * or cannot hold the whole set and the caller should read Mongo instead.
+     */
+    public List<AuctionSummary> getActiveAuctions(AuctionSort sort) {
+        if (!enabled) {
+            return null;
+        }
+
+        // A hit is a listing served as it stands; one that has to be sorted or loaded first is a miss
+        Listing listing = listings.get(sort);
+        if (complete && listing != null && listing.servable(changes.get(), listingRefreshMs)) {
+            hits.increment();
+            return listing.view;
+        }
+
+        misses.increment();
+        List<AuctionSummary> rebuilt = rebuild(sort);
+        if (rebuilt == null) {
+            // The caller reads Mongo rather than waiting for the load
+            reload();
+        }
+        return rebuilt;
+    }
+
+    @EventListener
+    public void onAuctionCreated(AuctionCreatedEvent event) {
+        if (!complete && !loading) {
+            return;
+        }
+        Auction auction = event.getAuction();
+        update(auction.getId(), existing -> new Entry(AuctionSummary.from(auction), auction.getVersion()));
+        if (entries.size() > maxSize) {
+            logger.warn("Active auctions exceed the cache size of {}, serving from the database", maxSize);
+            complete = false;
+            entries.clear();
+            listings.clear();
+        }
+    }
+
+    @EventListener
+    public void onBidAccepted(BidAcceptedEvent event) {
+        if (!complete && !loading) {
+            return;
+        }
+        Bid bid = event.getBid();
+        Auction auction = event.getAuction();
+        update(bid.getAuctionId(), existing -> {
+            if (existing == null) {
+                // During a load the engine's copy stands in until the full document arrives
+                return loading ? new Entry(AuctionSummary.from(auction), auction.getVersion()) : null;
+            }
+            AuctionSummary updated = copy(existing.summary);
+            updated.setCurrentBid(bid.getAmount());
+            updated.setEndTime(auction.getEndTime());
+            return new Entry(updated, auction.getVersion());
+        });
+        staleness.record(Duration.between(bid.getTimestamp(), LocalDateTime.now()));
+    }
+
+    @EventListener
+    public void onAuctionExtended(AuctionExtendedEvent event) {
+        if (!complete && !loading) {
+            return;
+        }
+        Auction auction = event.getAuction();
+        update(auction.getId(), existing -> {
+            if (existing == null) {
+                return loading ? new Entry(AuctionSummary.from(auction), auction.getVersion()) : null;
+            }
+            AuctionSummary updated = copy(existing.summary);
+            updated.setEndTime(auction.getEndTime());
+            return new Entry(updated, Math.max(existing.version, auction.getVersion()));
+        });
+    }
+
+    @EventListener
+    public void onAuctionUpdated(AuctionUpdatedEvent event) {
+        if (!complete && !loading) {
+            return;
+        }
+        Auction auction = event.getAuction();
+        update(auction.getId(), existing -> {
+            if (existing == null) {
+                return loading ? new Entry(AuctionSummary.from(auction), auction.getVersion()) : null;
+            }
+            AuctionSummary updated = copy(existing.summary);
+            updated.setName(auction.getName());
+            return new Entry(updated, Math.max(existing.version, auction.getVersion()));
+        });
+    }
+
+    @EventListener
+    public void onAuctionClosed(AuctionClosedEvent event) {
+        String auctionId = event.getAuction().getId();
+        if (loading) {
+            closedDuringLoad.add(auctionId);
+        }
+        update(auctionId, existing -> null);
+    }
+
+    /**
+     * Changes one auction's entry (a null result removes it) and marks the sorted listings out of date.
+     * The change runs atomically for its auction, so a close cannot be undone by a bid racing it.
+     */
+    private void update(String auctionId, UnaryOperator<Entry> change) {
+        Entry[] previous = new Entry[1];
+        Entry entry = entries.compute(auctionId, (key, existing) -> {
+            previous[0] = existing;
+            return change.apply(existing);
+        });
+        if (entry != previous[0]) {
+            changes.incrementAndGet();
+        }
+    }
+
+    // Sorts the entries into a new listing, dropping auctions that have run out of time; null until loaded
+    private List<AuctionSummary> rebuild(AuctionSort sort) {
+        if (!complete) {
+            return null;
+        }
+        Listing listing = listings.compute(sort, (key, existing) -> {
+            // Read before the entries, so a change made while sorting leaves the listing out of date
+            long seen = changes.get();
+            if (existing != null && existing.servable(seen, listingRefreshMs)) {
+                return existing;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            entries.values().removeIf(entry -> !entry.summary.getEndTime().isAfter(now));
+            AuctionSummary[] auctions = entries.values().stream()
+                    .map(entry -> entry.summary)
+                    .sorted(sort.comparator())
+                    .toArray(AuctionSummary[]::new);
+            return new Listing(auctions, seen);
+        });
+        return listing.view;
+    }
+
+    // Starts a load on the loader thread unless one is running or the last attempt was too recent
+    private void reload() {
+        long now = System.currentTimeMillis();
+        if (now - lastLoadAttempt < reloadRetryMs || !loadInProgress.compareAndSet(false, true)) {
+            return;
+        }
+        lastLoadAttempt = now;
+        loader.execute(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                logger.error("Failed to load active auctions into the cache: {}", e.getMessage());
+            } finally {
+                loadInProgress.set(false);
+            }
+        });
+    }
+
+    // Reads the active set from Mongo; events arriving meanwhile are merged in by version
+    private void load() {
+        try {
+            loading = true;
+            entries.clear();
+            closedDuringLoad.clear();
+            // Bids accepted before this point are in Mongo after the barrier; later ones arrive as events
+            if (!awaitFlush()) {
+                logger.warn("Write-behind flush did not finish within {} ms, active auction cache not loaded", loadTimeoutMs);
+                entries.clear();
+                return;
+            }
+
+            List<Auction> loaded = auctionRepository.findByEndTimeAfterAndStatus(
+                    LocalDateTime.now(), Auction.AuctionStatus.ACTIVE);
+            if (loaded.size() > maxSize) {
+                logger.warn("{} active auctions exceed the cache size of {}, serving from the database",
+                        loaded.size(), maxSize);
+                entries.clear();
+                return;
+            }
+            for (Auction auction : loaded) {
+                if (closedDuringLoad.contains(auction.getId())) {
+                    continue;
+                }
+                Entry stored = new Entry(AuctionSummary.from(auction), auction.getVersion());
+                entries.merge(auction.getId(), stored, (seen, document) -> {
+                    if (seen.version <= document.version) {
+                        return document;
+                    }
+                    // A bid landed while Mongo was being read; keep its state over the document
+                    AuctionSummary merged = copy(document.summary);
+                    merged.setName(seen.summary.getName());
+                    merged.setCurrentBid(seen.summary.getCurrentBid());
+                    merged.setEndTime(seen.summary.getEndTime());
+                    return new Entry(merged, seen.version);
+                });
+            }
+            entries.keySet().removeAll(closedDuringLoad);
+            listings.clear();
+            complete = true;
+            logger.info("Loaded {} active auctions into the cache", entries.size());
+        } catch (RuntimeException e) {
+            entries.clear();
+            throw e;
+        } finally {
+            loading = false;
+            closedDuringLoad.clear();
+        }
+    }
+
+    private boolean awaitFlush() {
+        try {
+            writeBehind.flush().get(loadTimeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static AuctionSummary copy(AuctionSummary source) {
+        AuctionSummary summary = new AuctionSummary();
+        summary.setId(source.getId());
+        summary.setName(source.getName());
+        summary.setImageUrl(source.getImageUrl());
+        summary.setCurrentBid(source.getCurrentBid());
+        summary.setEndTime(source.getEndTime());
+        summary.setStatus(source.getStatus());
+        summary.setCreatedAt(source.getCreatedAt());
+        return summary;
+    }
+
+    private static final class Entry {
+
+        private final AuctionSummary summary;
+
+        // Version of the auction the summary reflects, so a load never replaces a newer one
+        private final long version;
+
+        Entry(AuctionSummary summary, long version) {
+            this.summary = summary;
+            this.version = version;
+        }
+    }
+
+    private static final class Listing {
+
+        private final List<AuctionSummary> view;
+
+        // Earliest end time in the listing, after which it has to be rebuilt
+        private final LocalDateTime validUntil;
+
+        // Value of the change count the listing was sorted from, and when
+        private final long changes;
+
+        private final long builtAt = System.currentTimeMillis();
+
+        Listing(AuctionSummary[] auctions, long changes) {
+            this.view = Collections.unmodifiableList(Arrays.asList(auctions));
+            LocalDateTime earliest = LocalDateTime.MAX;
+            for (AuctionSummary auction : auctions) {
+                if (auction.getEndTime().isBefore(earliest)) {
+                    earliest = auction.getEndTime();
+                }
+            }
+            this.validUntil = earliest;
+            this.changes = changes;
+        }
+
+        // Served as it stands while no auction in it has ended and it has missed no change, or only recently
+        boolean servable(long currentChanges, long refreshMs) {
+            if (!validUntil.isAfter(LocalDateTime.now())) {
+                return false;
+            }
+            return changes == currentChanges || System.currentTimeMillis() - builtAt < refreshMs;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+
+package com.art.auction.service;
+
+import com.art.auction.event.AuctionClosedEvent;
+import com.art.auction.model.Auction;
+import com.art.auction.model.Message;
+import com.art.auction.repository.AuctionRepository;
+import com.art.auction.repository.MaxBidRepository;
+import com.art.auction.repository.MessageRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closes expired auctions in batches. Ids that come due together are collected for
+ * {@code batch-window-ms} and then closed in one run: the bid engine releases them, pending bids
+ * are flushed, one update ends them all, one insert writes every winner and seller message, and
+ * the WebSocket notifications are handed to a separate pool so a slow broker cannot hold up the
+ * next run.
+ */
+@Service
+public class AuctionClosePipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuctionClosePipeline.class);
+
+    @Autowired
+    private AuctionRepository auctionRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private MaxBidRepository maxBidRepository;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private BidEngine bidEngine;
+
+    @Autowired
+    private BidWriteBehind writeBehind;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.auction-close.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.auction-close.batch-window-ms:50}")
+    private long batchWindowMs;
+
+    @Value("${app.auction-close.notify-threads:4}")
+    private int notifyThreads;
+
+    private final BlockingQueue<String> pending = new LinkedBlockingQueue<>();
+
+    private ExecutorService notifier;
+
+    private Thread closer;
+
+    private volatile boolean running = true;
+
+    private Timer runDuration;
+
+    private Timer closeLag;
+
+    private DistributionSummary closedPerRun;
+
+    @PostConstruct
+    public void start() {
+        runDuration = Timer.builder("auctions.close.run")
+                .description("Time to close one batch of expired auctions")
+                .register(meterRegistry);
+        closeLag = Timer.builder("auctions.close.lag")
+                .description("Time between an auction's end and its close")
+                .register(meterRegistry);
+        closedPerRun = DistributionSummary.builder("auctions.close.batch.size")
+                .description("Auctions ended per close run")
+                .register(meterRegistry);
+        meterRegistry.gauge("auctions.close.pending", pending, BlockingQueue::size);
+
+        notifier = Executors.newFixedThreadPool(notifyThreads, runnable -> {
+            Thread thread = new Thread(runnable, "auction-close-notify");
+            thread.setDaemon(true);
+            return thread;
+        });
+        closer = new Thread(this::run, "auction-close");
+        closer.setDaemon(true);
+        closer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        closer.join();
+        notifier.shutdown();
+    }
+
+    public void submit(String auctionId) {
+        pending.offer(auctionId);
+    }
+
+    public void submit(Collection<String> auctionIds) {
+        pending.addAll(auctionIds);
+    }
+
+    private void run() {
+        Set<String> batch = new LinkedHashSet<>();
+        while (running || !pending.isEmpty()) {
+            try {
+                String first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Auctions ending on the same second arrive a few at a time; let them catch up
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindowMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    String next = remaining > 0 ? pending.poll(remaining, TimeUnit.NANOSECONDS) : pending.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                pending.drainTo(batch);
+            }
+
+            if (!batch.isEmpty()) {
+                try {
+                    close(batch);
+                } catch (Exception e) {
+                    // The reconciliation sweep picks up anything left active
+                    logger.error("Failed to close {} auctions: {}", batch.size(), e.getMessage());
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void close(Set<String> auctionIds) {
+        long start = System.nanoTime();
+
+        List<String> released = bidEngine.release(auctionIds).join();
+        // Bids accepted before the release must reach the database before the status flips
+        writeBehind.flush().join();
+        long releasedAt = System.nanoTime();
+
+        List<Auction> ended = released.isEmpty() ? List.of() : auctionRepository.endAuctions(released);
+        long endedAt = System.nanoTime();
+
+        List<Message> messages = new ArrayList<>();
+        for (Auction auction : ended) {
+            addMessages(auction, messages);
+        }
+        if (!messages.isEmpty()) {
+            messageRepository.insert(messages);
+        }
+        if (!ended.isEmpty()) {
+            // Standing max bids of ended auctions can never bid again
+            maxBidRepository.deleteByAuctionIdIn(ended.stream().map(Auction::getId).toList());
+        }
+        long messagedAt = System.nanoTime();
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Auction auction : ended) {
+            eventPublisher.publishEvent(new AuctionClosedEvent(auction));
+            notifier.execute(() -> {
+                try {
+                    webSocketService.notifyAuctionEnded(auction);
+                } catch (Exception e) {
+                    logger.error("Failed to notify end of auction {}: {}", auction.getId(), e.getMessage());
+                }
+            });
+            closeLag.record(Duration.between(auction.getEndTime(), now));
+        }
+
+        long total = System.nanoTime() - start;
+        runDuration.record(total, TimeUnit.NANOSECONDS);
+        closedPerRun.record(ended.size());
+        logger.info("Closed {} of {} due auctions, {} messages in {} ms (release {} ms, end {} ms, messages {} ms)",
+                ended.size(), auctionIds.size(), messages.size(), TimeUnit.NANOSECONDS.toMillis(total),
+                TimeUnit.NANOSECONDS.toMillis(releasedAt - start),
+                TimeUnit.NANOSECONDS.toMillis(endedAt - releasedAt),
+                TimeUnit.NANOSECONDS.toMillis(messagedAt - endedAt));
+    }
+
+    private void addMessages(Auction auction, List<Message> messages) {
+        // Messages only go out if there was a winning bid
+        if (auction.getCurrentBidderId() == null) {
+            return;
+        }
+
+        // Notify winner
+        Message winnerMessage = new Message();
+        winnerMessage.setSenderId("system");
+        winnerMessage.setRecipientId(auction.getCurrentBidderId());
+        winnerMessage.setAuctionId(auction.getId());
+        winnerMessage.setContent("Congratulations! You've won the auction for " + auction.getName() +
+                ". Please contact the seller at: " + auction.getSellerName());
+        winnerMessage.setType(Message.MessageType.AUCTION_WON);
+        winnerMessage.setTimestamp(LocalDateTime.now());
+        messages.add(winnerMessage);
+
+        // Notify seller
+        Message sellerMessage = new Message();
+        sellerMessage.setSenderId("system");
+        sellerMessage.setRecipientId(auction.getSellerId());
+        sellerMessage.setAuctionId(auction.getId());
+        sellerMessage.setContent("Your auction for " + auction.getName() +
+                " has ended. The winning bidder is " + auction.getCurrentBidderName() +
+                ". Please collect 25% of the final bid amount: $" + auction.getCurrentBid());
+        sellerMessage.setType(Message.MessageType.AUCTION_SOLD);
+        sellerMessage.setTimestamp(LocalDateTime.now());
+        messages.add(sellerMessage);
+    }
+}
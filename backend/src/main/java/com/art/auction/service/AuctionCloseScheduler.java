@@ -0,0 +1,127 @@
+
+package com.art.auction.service;
+
+import com.art.auction.event.AuctionClosedEvent;
+import com.art.auction.event.AuctionCreatedEvent;
+import com.art.auction.event.AuctionExtendedEvent;
+import com.art.auction.model.Auction;
+import com.art.auction.repository.AuctionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Closes each active auction at its end time. Every auction has one timer on a hierarchical
+ * timing wheel, loaded from Mongo at startup and kept current from auction events; expired
+ * timers only queue the close, so the wheel's thread stays on time.
+ */
+@Service
+@DependsOn({"mongoIndexSetup", "auctionBidSummaryMigration"})
+public class AuctionCloseScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuctionCloseScheduler.class);
+
+    @Autowired
+    private AuctionRepository auctionRepository;
+
+    @Autowired
+    private AuctionService auctionService;
+
+    @Value("${app.auction-close.tick-ms:1}")
+    private long tickMs;
+
+    @Value("${app.auction-close.wheel-size:512}")
+    private int wheelSize;
+
+    private final ConcurrentHashMap<String, TimingWheel.Timer> timers = new ConcurrentHashMap<>();
+
+    private TimingWheel wheel;
+
+    private Thread driver;
+
+    private volatile boolean running = true;
+
+    @PostConstruct
+    public void start() {
+        wheel = new TimingWheel(tickMs, wheelSize, System.currentTimeMillis(), this::expire);
+
+        List<Auction> active = auctionRepository.findEndTimesByStatus(Auction.AuctionStatus.ACTIVE);
+        for (Auction auction : active) {
+            schedule(auction.getId(), auction.getEndTime());
+        }
+        logger.info("Scheduled close for {} active auctions", active.size());
+
+        driver = new Thread(() -> {
+            while (running) {
+                try {
+                    wheel.advance(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }, "auction-close-wheel");
+        driver.setDaemon(true);
+        driver.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        driver.interrupt();
+    }
+
+    // Sets (or moves) the auction's close to the given end time
+    public void schedule(String auctionId, LocalDateTime endTime) {
+        if (endTime == null) {
+            return;
+        }
+        long deadline = endTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        TimingWheel.Timer timer = new TimingWheel.Timer(auctionId, deadline);
+        TimingWheel.Timer previous = timers.put(auctionId, timer);
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+        wheel.add(timer);
+    }
+
+    public void cancel(String auctionId) {
+        TimingWheel.Timer timer = timers.remove(auctionId);
+        if (timer != null) {
+            wheel.cancel(timer);
+        }
+    }
+
+    @EventListener
+    public void onAuctionCreated(AuctionCreatedEvent event) {
+        schedule(event.getAuction().getId(), event.getAuction().getEndTime());
+    }
+
+    @EventListener
+    public void onAuctionExtended(AuctionExtendedEvent event) {
+        schedule(event.getAuction().getId(), event.getAuction().getEndTime());
+    }
+
+    @EventListener
+    public void onAuctionClosed(AuctionClosedEvent event) {
+        cancel(event.getAuction().getId());
+    }
+
+    private void expire(TimingWheel.Timer timer) {
+        // Ignore timers that were replaced after they fired
+        if (timers.remove(timer.key, timer)) {
+            auctionService.closeExpired(timer.key);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+
+package com.art.auction.service;
+
+import com.art.auction.dto.AuctionSnapshot;
+import com.art.auction.event.AuctionClosedEvent;
+import com.art.auction.model.Auction;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongFunction;
+
+/**
+ * Numbers every WebSocket event per auction and keeps the last {@code replay-buffer} of them, already
+ * serialized, so a client that reconnects can send the last sequence number it saw and get back just
+ * the events it missed. A client further behind than the buffer reaches, or one that last saw another
+ * run of the server (a different epoch), gets a snapshot of the auction instead. Buffers of closed
+ * auctions are kept for {@code replay-retention-ms} so the ending itself can still be replayed.
+ */
+@Service
+public class AuctionEventLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuctionEventLog.class);
+
+    private static final String REPLAY_DESTINATION = "/queue/replay";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BidWriteBehind writeBehind;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.websocket.replay-buffer:64}")
+    private int bufferSize;
+
+    @Value("${app.websocket.replay-retention-ms:600000}")
+    private long retentionMs;
+
+    @Value("${app.websocket.max-interest:200}")
+    private int maxAuctions;
+
+    @Value("${app.websocket.snapshot-threads:2}")
+    private int snapshotThreads;
+
+    // Sequence numbers restart with the process; clients compare the epoch before trusting them
+    private final long epoch = System.currentTimeMillis();
+
+    private final Map<String, EventRing> rings = new ConcurrentHashMap<>();
+
+    // Snapshot reads wait for the write-behind and Mongo, so they run here and not on the inbound channel
+    private ExecutorService snapshotter;
+
+    private Counter replayed;
+
+    private Counter snapshots;
+
+    @PostConstruct
+    public void start() {
+        replayed = Counter.builder("websocket.resume.replayed")
+                .description("Missed events sent again to resuming clients")
+                .register(meterRegistry);
+        snapshots = Counter.builder("websocket.resume.snapshots")
+                .description("Auction snapshots sent to clients too far behind to replay")
+                .register(meterRegistry);
+        meterRegistry.gauge("websocket.resume.buffers", rings, Map::size);
+        snapshotter = Executors.newFixedThreadPool(snapshotThreads, runnable -> {
+            Thread thread = new Thread(runnable, "auction-event-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        snapshotter.shutdown();
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Gives the auction's next event its sequence number, serializes it once and keeps the frame for
+     * replay. The update is built inside so the number it carries matches its place in the buffer.
+     */
+    public SharedFrame append(String auctionId, boolean droppable, LongFunction<Object> update) {
+        EventRing ring = rings.computeIfAbsent(auctionId, id -> new EventRing(bufferSize));
+        synchronized (ring) {
+            long seq = ring.last + 1;
+            SharedFrame frame = serialize(update.apply(seq), droppable);
+            ring.add(seq, frame);
+            return frame;
+        }
+    }
+
+    /**
+     * Sends one session what it missed, to its {@code /user/queue/replay}: the buffered events after
+     * each auction's last seen sequence number, or a snapshot where those are no longer all buffered.
+     */
+    public void resume(String sessionId, Long clientEpoch, Map<String, Long> lastSeen) {
+        boolean sameRun = clientEpoch != null && clientEpoch == epoch;
+        List<String> behind = new ArrayList<>();
+        int count = 0;
+        for (Map.Entry<String, Long> entry : lastSeen.entrySet()) {
+            if (count++ >= maxAuctions) {
+                break;
+            }
+            String auctionId = entry.getKey();
+            long last = entry.getValue() == null ? 0 : entry.getValue();
+            EventRing ring = rings.get(auctionId);
+            List<SharedFrame> missed = null;
+            if (sameRun && ring != null) {
+                synchronized (ring) {
+                    missed = ring.after(last);
+                }
+            }
+            if (missed == null) {
+                behind.add(auctionId);
+                continue;
+            }
+            for (SharedFrame frame : missed) {
+                sendToSession(sessionId, frame);
+            }
+            replayed.increment(missed.size());
+        }
+
+        if (!behind.isEmpty()) {
+            sendSnapshots(sessionId, behind);
+        }
+    }
+
+    // Closed auctions get no more events; their buffers only need to outlive the reconnects that follow.
+    // The ending itself is appended after this, so an auction that never had an event gets its buffer here.
+    @EventListener
+    public void onAuctionClosed(AuctionClosedEvent event) {
+        EventRing ring = rings.computeIfAbsent(event.getAuction().getId(), id -> new EventRing(bufferSize));
+        ring.closedAt = System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictClosed() {
+        long cutoff = System.currentTimeMillis() - retentionMs;
+        rings.values().removeIf(ring -> ring.closedAt != 0 && ring.closedAt < cutoff);
+    }
+
+    private void sendSnapshots(String sessionId, List<String> auctionIds) {
+        // Sequence numbers are read before the state, so a snapshot never claims an event it does not reflect
+        Map<String, Long> seqs = new ConcurrentHashMap<>();
+        for (String auctionId : auctionIds) {
+            EventRing ring = rings.get(auctionId);
+            if (ring != null) {
+                synchronized (ring) {
+                    seqs.put(auctionId, ring.last);
+                }
+            }
+        }
+        // Bids accepted so far are in Mongo after the barrier; the read is left to the snapshot threads
+        writeBehind.flush().whenCompleteAsync((flushed, e) -> {
+            try {
+                readSnapshots(sessionId, auctionIds, seqs);
+            } catch (RuntimeException failure) {
+                logger.warn("Could not send snapshots to session {}: {}", sessionId, failure.getMessage());
+            }
+        }, snapshotter);
+    }
+
+    private void readSnapshots(String sessionId, List<String> auctionIds, Map<String, Long> seqs) {
+        Query query = new Query(Criteria.where("_id").in(auctionIds));
+        query.fields().include("name", "currentBid", "currentBidderName", "bidCount", "endTime", "status");
+        for (Auction auction : mongoTemplate.find(query, Auction.class)) {
+            AuctionSnapshot snapshot = new AuctionSnapshot(epoch, seqs.getOrDefault(auction.getId(), 0L),
+                    auction.getId(), auction.getName(), auction.getCurrentBid(), auction.getCurrentBidderName(),
+                    auction.getBidCount(), auction.getEndTime(), auction.getStatus());
+            sendToSession(sessionId, serialize(snapshot, false));
+            snapshots.increment();
+        }
+    }
+
+    private void sendToSession(String sessionId, SharedFrame frame) {
+        messagingTemplate.send(messagingTemplate.getUserDestinationPrefix() + sessionId + REPLAY_DESTINATION,
+                frame.messageForSession(sessionId));
+    }
+
+    private SharedFrame serialize(Object update, boolean droppable) {
+        try {
+            return new SharedFrame(objectMapper.writeValueAsBytes(update), droppable);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + update.getClass().getSimpleName(), e);
+        }
+    }
+
+    // The last events of one auction, oldest overwritten first; guarded by its own monitor
+    static final class EventRing {
+
+        private final SharedFrame[] frames;
+
+        // Sequence number of the newest event, and of the newest one no longer held (0: none lost yet)
+        private long last;
+
+        private long floor;
+
+        private volatile long closedAt;
+
+        EventRing(int capacity) {
+            this.frames = new SharedFrame[capacity];
+        }
+
+        void add(long seq, SharedFrame frame) {
+            if (seq - floor > frames.length) {
+                floor = seq - frames.length;
+            }
+            frames[(int) (seq % frames.length)] = frame;
+            last = seq;
+        }
+
+        // Events after the given one, oldest first, or null when some of them have already been overwritten
+        List<SharedFrame> after(long seen) {
+            if (seen < floor || seen > last) {
+                return null;
+            }
+            List<SharedFrame> missed = new ArrayList<>((int) (last - seen));
+            for (long seq = seen + 1; seq <= last; seq++) {
+                missed.add(frames[(int) (seq % frames.length)]);
+            }
+            return missed;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+
+package com.art.auction.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which WebSocket sessions want updates for which auctions. Each session registers the set of
+ * auctions it is showing, replacing its previous set, and listing updates are then sent only to the
+ * sessions in an auction's entry here rather than to every connection.
+ */
+@Service
+public class AuctionInterestRegistry {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.websocket.max-interest:200}")
+    private int maxInterest;
+
+    private final Map<String, Set<String>> sessionsByAuction = new ConcurrentHashMap<>();
+
+    // What each session registered last, so a new set or a disconnect can undo it
+    private final Map<String, Set<String>> auctionsBySession = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        meterRegistry.gauge("websocket.interest.sessions", auctionsBySession, Map::size);
+        meterRegistry.gauge("websocket.interest.auctions", sessionsByAuction, Map::size);
+    }
+
+    // Replaces the session's interest set; ids beyond max-interest are ignored
+    public void setInterest(String sessionId, Collection<String> auctionIds) {
+        Set<String> wanted = new LinkedHashSet<>();
+        for (String auctionId : auctionIds) {
+            if (wanted.size() >= maxInterest) {
+                break;
+            }
+            if (auctionId != null && !auctionId.isBlank()) {
+                wanted.add(auctionId);
+            }
+        }
+
+        // Runs under the session's map entry, so two sets from one session cannot interleave
+        auctionsBySession.compute(sessionId, (id, previous) -> {
+            if (previous != null) {
+                for (String auctionId : previous) {
+                    if (!wanted.contains(auctionId)) {
+                        unregister(auctionId, sessionId);
+                    }
+                }
+            }
+            for (String auctionId : wanted) {
+                sessionsByAuction.compute(auctionId, (key, sessions) -> {
+                    Set<String> updated = sessions == null ? ConcurrentHashMap.newKeySet() : sessions;
+                    updated.add(sessionId);
+                    return updated;
+                });
+            }
+            return wanted;
+        });
+    }
+
+    public Set<String> sessionsFor(String auctionId) {
+        Set<String> sessions = sessionsByAuction.get(auctionId);
+        return sessions == null ? Collections.emptySet() : sessions;
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        auctionsBySession.computeIfPresent(event.getSessionId(), (sessionId, previous) -> {
+            previous.forEach(auctionId -> unregister(auctionId, sessionId));
+            return null;
+        });
+    }
+
+    private void unregister(String auctionId, String sessionId) {
+        sessionsByAuction.computeIfPresent(auctionId, (id, sessions) -> {
+            sessions.remove(sessionId);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+}
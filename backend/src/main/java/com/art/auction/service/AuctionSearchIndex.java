@@ -0,0 +1,333 @@
+
+package com.art.auction.service;
+
+import com.art.auction.dto.AuctionSummary;
+import com.art.auction.event.AuctionClosedEvent;
+import com.art.auction.event.AuctionCreatedEvent;
+import com.art.auction.event.AuctionExtendedEvent;
+import com.art.auction.event.AuctionUpdatedEvent;
+import com.art.auction.event.BidAcceptedEvent;
+import com.art.auction.model.Auction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over auction names and descriptions. Terms are kept sorted, so each
+ * query word also matches every term it is a prefix of ("imp" finds "impressionist"). Built from
+ * Mongo at startup and then maintained from auction events; bids and closes only replace the
+ * small per-auction record the filters read, and only edits to the text touch the postings.
+ */
+@Service
+@DependsOn({"mongoIndexSetup", "auctionBidSummaryMigration"})
+public class AuctionSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuctionSearchIndex.class);
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    // A word in the name counts for more than one in the description
+    private static final float NAME_WEIGHT = 2f;
+
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    // Prefix matches score below exact ones, so "oil" ranks "oil" above "oilcloth"
+    private static final float PREFIX_FACTOR = 0.5f;
+
+    // Shorter query words only match whole terms; expanding "a" would touch most of the index
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.search.enabled:true}")
+    private boolean enabled;
+
+    // Term -> auction id -> weight of the term in that auction; guarded by lock
+    private final TreeMap<String, Map<String, Float>> postings = new TreeMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Fields the filters and results need, replaced whole on every change
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private Timer searchLatency;
+
+    @PostConstruct
+    public void start() {
+        searchLatency = Timer.builder("auctions.search.latency")
+                .description("Time to answer one search from the in-memory index")
+                .register(meterRegistry);
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    // Reads every auction from Mongo, streaming only the fields the index keeps
+    public void rebuild() {
+        long start = System.nanoTime();
+        Query query = new Query();
+        query.fields().include("name", "description", "imageUrl", "currentBid", "endTime", "status", "createdAt");
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            entries.clear();
+            try (Stream<Auction> auctions = mongoTemplate.stream(query, Auction.class)) {
+                auctions.forEach(this::index);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Indexed {} auctions ({} terms) for search in {} ms", entries.size(), postings.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Auctions matching every word of the query (each as a prefix), filtered by status and
+     * price, best first by relevance or soonest ending. Returns at most {@code limit} results.
+     */
+    public List<AuctionSummary> search(String text, Set<Auction.AuctionStatus> statuses,
+                                       Double minPrice, Double maxPrice, SearchSort sort, int limit) {
+        long start = System.nanoTime();
+        List<String> words = tokenize(text);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Float> scores;
+        lock.readLock().lock();
+        try {
+            scores = score(words);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Comparator<Scored> order = sort == SearchSort.ENDING_SOONEST
+                ? Comparator.comparing((Scored scored) -> scored.entry.summary.getEndTime()).reversed()
+                : Comparator.comparingDouble((Scored scored) -> scored.score);
+        // Keeps the best `limit` results with the worst one on top, ready to be replaced
+        PriorityQueue<Scored> best = new PriorityQueue<>(limit + 1, order);
+        for (Map.Entry<String, Float> match : scores.entrySet()) {
+            Entry entry = entries.get(match.getKey());
+            if (entry == null || !entry.matches(statuses, minPrice, maxPrice)) {
+                continue;
+            }
+            best.add(new Scored(entry, match.getValue()));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<AuctionSummary> results = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            results.add(best.poll().entry.summary);
+        }
+        Collections.reverse(results);
+        searchLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return results;
+    }
+
+    @EventListener
+    public void onAuctionCreated(AuctionCreatedEvent event) {
+        if (enabled) {
+            reindex(event.getAuction());
+        }
+    }
+
+    @EventListener
+    public void onAuctionUpdated(AuctionUpdatedEvent event) {
+        if (enabled) {
+            reindex(event.getAuction());
+        }
+    }
+
+    @EventListener
+    public void onBidAccepted(BidAcceptedEvent event) {
+        entries.computeIfPresent(event.getBid().getAuctionId(),
+                (id, entry) -> entry.with(summary -> summary.setCurrentBid(event.getBid().getAmount())));
+    }
+
+    @EventListener
+    public void onAuctionExtended(AuctionExtendedEvent event) {
+        entries.computeIfPresent(event.getAuction().getId(),
+                (id, entry) -> entry.with(summary -> summary.setEndTime(event.getAuction().getEndTime())));
+    }
+
+    // Closed and cancelled auctions stay searchable under their new status
+    @EventListener
+    public void onAuctionClosed(AuctionClosedEvent event) {
+        entries.computeIfPresent(event.getAuction().getId(),
+                (id, entry) -> entry.with(summary -> summary.setStatus(event.getAuction().getStatus())));
+    }
+
+    private Map<String, Float> score(List<String> words) {
+        Map<String, Float> scores = null;
+        for (String word : words) {
+            Map<String, Float> wordScores = new HashMap<>();
+            Map<String, Map<String, Float>> terms = word.length() >= MIN_PREFIX_LENGTH
+                    ? postings.subMap(word, true, word + Character.MAX_VALUE, false)
+                    : exact(word);
+            for (Map.Entry<String, Map<String, Float>> term : terms.entrySet()) {
+                Map<String, Float> auctions = term.getValue();
+                // Rare terms say more about an auction than common ones
+                float idf = (float) Math.log(1 + (double) entries.size() / auctions.size());
+                float factor = term.getKey().equals(word) ? idf : idf * PREFIX_FACTOR;
+                for (Map.Entry<String, Float> posting : auctions.entrySet()) {
+                    if (scores == null || scores.containsKey(posting.getKey())) {
+                        wordScores.merge(posting.getKey(), posting.getValue() * factor, Math::max);
+                    }
+                }
+            }
+
+            // Every word has to match: keep only auctions matched so far, adding this word's score
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                Map<String, Float> previous = scores;
+                wordScores.replaceAll((id, score) -> score + previous.get(id));
+                scores = wordScores;
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    private Map<String, Map<String, Float>> exact(String word) {
+        Map<String, Float> auctions = postings.get(word);
+        return auctions == null ? Map.of() : Map.of(word, auctions);
+    }
+
+    private void reindex(Auction auction) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.get(auction.getId());
+            if (previous != null) {
+                for (String term : previous.terms) {
+                    Map<String, Float> auctions = postings.get(term);
+                    if (auctions != null) {
+                        auctions.remove(auction.getId());
+                        if (auctions.isEmpty()) {
+                            postings.remove(term);
+                        }
+                    }
+                }
+            }
+            index(auction);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void index(Auction auction) {
+        Map<String, Float> weights = new HashMap<>();
+        for (String term : tokenize(auction.getName())) {
+            weights.merge(term, NAME_WEIGHT, Float::sum);
+        }
+        for (String term : tokenize(auction.getDescription())) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Float::sum);
+        }
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(auction.getId(), weight));
+        entries.put(auction.getId(), new Entry(AuctionSummary.from(auction), weights.keySet()));
+    }
+
+    // Lower-cased words with accents removed, so "Café" and "cafe" index the same
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(folded.toLowerCase())) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    public enum SearchSort {
+        RELEVANCE,
+        ENDING_SOONEST
+    }
+
+    private static final class Entry {
+
+        private final AuctionSummary summary;
+
+        private final Collection<String> terms;
+
+        Entry(AuctionSummary summary, Collection<String> terms) {
+            this.summary = summary;
+            this.terms = terms;
+        }
+
+        // Results hand the summary out, so changes go to a copy
+        Entry with(Consumer<AuctionSummary> change) {
+            AuctionSummary copy = new AuctionSummary();
+            copy.setId(summary.getId());
+            copy.setName(summary.getName());
+            copy.setImageUrl(summary.getImageUrl());
+            copy.setCurrentBid(summary.getCurrentBid());
+            copy.setEndTime(summary.getEndTime());
+            copy.setStatus(summary.getStatus());
+            copy.setCreatedAt(summary.getCreatedAt());
+            change.accept(copy);
+            return new Entry(copy, terms);
+        }
+
+        boolean matches(Set<Auction.AuctionStatus> statuses, Double minPrice, Double maxPrice) {
+            return statuses.contains(summary.getStatus())
+                    && (minPrice == null || summary.getCurrentBid() >= minPrice)
+                    && (maxPrice == null || summary.getCurrentBid() <= maxPrice);
+        }
+    }
+
+    private static final class Scored {
+
+        private final Entry entry;
+
+        private final float score;
+
+        Scored(Entry entry, float score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+}
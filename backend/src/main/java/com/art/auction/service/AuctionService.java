@@ -1,15 +1,18 @@
 
 package com.art.auction.service;
 
+import com.art.auction.dto.AuctionSummary;
+import com.art.auction.dto.CursorPage;
+import com.art.auction.dto.PageCursor;
 import com.art.auction.model.Auction;
-import com.art.auction.model.Message;
 import com.art.auction.repository.AuctionRepository;
-import com.art.auction.repository.MessageRepository;
+import com.art.auction.repository.AuctionSort;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 
 @Service
@@ -19,60 +22,52 @@ public class AuctionService {
     private AuctionRepository auctionRepository;
     
     @Autowired
-    private MessageRepository messageRepository;
+    private AuctionClosePipeline closePipeline;
     
     @Autowired
-    private WebSocketService webSocketService;
+    private ActiveAuctionCache activeAuctionCache;
 
-    public List<Auction> findAllActiveAuctions() {
-        return auctionRepository.findByEndTimeAfterAndStatus(
-                LocalDateTime.now(), Auction.AuctionStatus.ACTIVE);
+    public CursorPage<AuctionSummary> findActiveAuctions(AuctionSort sort, PageCursor after, int limit) {
+        List<AuctionSummary> cached = activeAuctionCache.getActiveAuctions(sort);
+        List<AuctionSummary> fetched = cached != null
+                ? pageOf(cached, sort, after, limit)
+                : auctionRepository.findActiveSummaries(sort, after, limit);
+        return CursorPage.of(fetched, limit, auction -> cursorOf(auction, sort));
     }
 
-    // Scheduled task to check and end expired auctions
-    @Scheduled(fixedRate = 60000) // Run every minute
+    public CursorPage<AuctionSummary> findSellerAuctions(String sellerId, AuctionSort sort, PageCursor after, int limit) {
+        List<AuctionSummary> fetched = auctionRepository.findSellerSummaries(sellerId, sort, after, limit);
+        return CursorPage.of(fetched, limit, auction -> cursorOf(auction, sort));
+    }
+
+    // Safety net behind AuctionCloseScheduler: closes any active auction whose timer was missed
+    @Scheduled(fixedDelayString = "${app.auction-close.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.auction-close.reconcile-interval-ms:300000}")
     public void checkEndedAuctions() {
-        List<Auction> endedAuctions = auctionRepository.findByEndTimeBefore(LocalDateTime.now());
+        // Ids only; the close pipeline ends the auctions itself
+        List<Auction> endedAuctions = auctionRepository.findIdsByStatusAndEndTimeBefore(
+                Auction.AuctionStatus.ACTIVE, LocalDateTime.now());
         
-        for (Auction auction : endedAuctions) {
-            if (auction.getStatus() == Auction.AuctionStatus.ACTIVE) {
-                endAuction(auction);
-            }
-        }
+        closePipeline.submit(endedAuctions.stream().map(Auction::getId).toList());
     }
     
-    private void endAuction(Auction auction) {
-        auction.setStatus(Auction.AuctionStatus.ENDED);
-        auction.setUpdatedAt(LocalDateTime.now());
-        auctionRepository.save(auction);
-        
-        // Notify users via WebSocket
-        webSocketService.notifyAuctionEnded(auction);
-        
-        // Send notification messages if there was a winning bid
-        if (auction.getCurrentBidderId() != null) {
-            // Notify winner
-            Message winnerMessage = new Message();
-            winnerMessage.setSenderId("system");
-            winnerMessage.setRecipientId(auction.getCurrentBidderId());
-            winnerMessage.setAuctionId(auction.getId());
-            winnerMessage.setContent("Congratulations! You've won the auction for " + auction.getName() + 
-                    ". Please contact the seller at: " + auction.getSellerName());
-            winnerMessage.setType(Message.MessageType.AUCTION_WON);
-            winnerMessage.setTimestamp(LocalDateTime.now());
-            messageRepository.save(winnerMessage);
-            
-            // Notify seller
-            Message sellerMessage = new Message();
-            sellerMessage.setSenderId("system");
-            sellerMessage.setRecipientId(auction.getSellerId());
-            sellerMessage.setAuctionId(auction.getId());
-            sellerMessage.setContent("Your auction for " + auction.getName() + 
-                    " has ended. The winning bidder is " + auction.getCurrentBidderName() + 
-                    ". Please collect 25% of the final bid amount: $" + auction.getCurrentBid());
-            sellerMessage.setType(Message.MessageType.AUCTION_SOLD);
-            sellerMessage.setTimestamp(LocalDateTime.now());
-            messageRepository.save(sellerMessage);
+    // The same keyset window over an already sorted listing: binary search to the cursor, then slice
+    private List<AuctionSummary> pageOf(List<AuctionSummary> sorted, AuctionSort sort, PageCursor after, int limit) {
+        int from = 0;
+        if (after != null) {
+            AuctionSummary probe = sort.probe(sort.parseKey(after.getKey()), after.getId());
+            int index = Collections.binarySearch(sorted, probe, sort.comparator());
+            from = index >= 0 ? index + 1 : -(index + 1);
         }
+        return sorted.subList(from, Math.min(sorted.size(), from + limit + 1));
+    }
+    
+    private PageCursor cursorOf(AuctionSummary auction, AuctionSort sort) {
+        return new PageCursor(sort.name(), sort.formatKey(auction), auction.getId());
+    }
+    
+    // Queues the auction for the next close run; auctions that come due together are closed together
+    public void closeExpired(String auctionId) {
+        closePipeline.submit(auctionId);
     }
 }
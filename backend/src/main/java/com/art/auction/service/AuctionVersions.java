@@ -0,0 +1,83 @@
+
+package com.art.auction.service;
+
+import com.art.auction.event.AuctionClosedEvent;
+import com.art.auction.event.AuctionCreatedEvent;
+import com.art.auction.event.AuctionExtendedEvent;
+import com.art.auction.event.AuctionUpdatedEvent;
+import com.art.auction.event.BidAcceptedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest known version of each auction, kept from the same events that change it, so a
+ * conditional GET can be answered without reading Mongo. Versions only ever move up here; an
+ * auction that is missing (never seen, or trimmed) simply falls through to the database.
+ */
+@Service
+public class AuctionVersions {
+
+    @Autowired
+    private BidEngine bidEngine;
+
+    private final ConcurrentHashMap<String, Long> versions = new ConcurrentHashMap<>();
+
+    @Value("${app.auction-versions.max-size:100000}")
+    private int maxSize;
+
+    // Null when the version is not known here
+    public Long get(String auctionId) {
+        return versions.get(auctionId);
+    }
+
+    public void observe(String auctionId, long version) {
+        versions.merge(auctionId, version, Math::max);
+        if (versions.size() > maxSize) {
+            trim();
+        }
+    }
+
+    @EventListener
+    public void onAuctionCreated(AuctionCreatedEvent event) {
+        observe(event.getAuction().getId(), event.getAuction().getVersion());
+    }
+
+    @EventListener
+    public void onBidAccepted(BidAcceptedEvent event) {
+        observe(event.getAuction().getId(), event.getAuction().getVersion());
+    }
+
+    @EventListener
+    public void onAuctionExtended(AuctionExtendedEvent event) {
+        observe(event.getAuction().getId(), event.getAuction().getVersion());
+    }
+
+    @EventListener
+    public void onAuctionUpdated(AuctionUpdatedEvent event) {
+        observe(event.getAuction().getId(), event.getAuction().getVersion());
+    }
+
+    @EventListener
+    public void onAuctionClosed(AuctionClosedEvent event) {
+        observe(event.getAuction().getId(), event.getAuction().getVersion());
+    }
+
+    /**
+     * Drops entries down to three quarters of the limit; dropped auctions read Mongo again. Auctions
+     * the bid engine holds are kept: their database copy can trail the engine by an unflushed bid,
+     * so a version re-learned from a read could be older than one already handed out.
+     */
+    private void trim() {
+        Iterator<String> ids = versions.keySet().iterator();
+        while (versions.size() > maxSize * 3 / 4 && ids.hasNext()) {
+            if (bidEngine.knownPrice(ids.next()) == null) {
+                ids.remove();
+            }
+        }
+    }
+}
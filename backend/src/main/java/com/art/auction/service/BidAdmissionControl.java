@@ -0,0 +1,187 @@
+
+package com.art.auction.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission layer in front of the bid engine. Bids at or below the engine's known price are
+ * refused without touching the engine or Mongo, and each user and each auction gets a token
+ * bucket. Buckets are kept as a single "theoretical arrival time" per key (GCRA), so taking a
+ * token is one CAS on an {@link AtomicLong} and never blocks.
+ */
+@Service
+public class BidAdmissionControl {
+
+    @Autowired
+    private BidEngine bidEngine;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.bid-admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.bid-admission.user-rate-per-second:5}")
+    private double userRate;
+
+    @Value("${app.bid-admission.user-burst:10}")
+    private int userBurst;
+
+    @Value("${app.bid-admission.auction-rate-per-second:200}")
+    private double auctionRate;
+
+    @Value("${app.bid-admission.auction-burst:400}")
+    private int auctionBurst;
+
+    private TokenBuckets userBuckets;
+
+    private TokenBuckets auctionBuckets;
+
+    private Counter priceRejections;
+
+    private Counter userRejections;
+
+    private Counter auctionRejections;
+
+    @PostConstruct
+    public void start() {
+        userBuckets = new TokenBuckets(userRate, userBurst);
+        auctionBuckets = new TokenBuckets(auctionRate, auctionBurst);
+        priceRejections = rejections("price");
+        userRejections = rejections("user");
+        auctionRejections = rejections("auction");
+    }
+
+    public Decision admit(String userId, String auctionId, double amount) {
+        if (!enabled) {
+            return Decision.ADMITTED;
+        }
+
+        Double knownPrice = bidEngine.knownPrice(auctionId);
+        if (knownPrice != null && amount <= knownPrice) {
+            priceRejections.increment();
+            return Decision.BELOW_PRICE;
+        }
+
+        return admit(userId, auctionId);
+    }
+
+    // Rate limits only, for requests that carry no amount to check yet
+    public Decision admit(String userId, String auctionId) {
+        if (!enabled) {
+            return Decision.ADMITTED;
+        }
+
+        long userWait = userBuckets.take(userId);
+        if (userWait > 0) {
+            userRejections.increment();
+            return Decision.limited(userWait);
+        }
+
+        long auctionWait = auctionBuckets.take(auctionId);
+        if (auctionWait > 0) {
+            // A refused bid costs the user nothing, or a busy auction would lock them out of others
+            userBuckets.refund(userId);
+            auctionRejections.increment();
+            return Decision.limited(auctionWait);
+        }
+        return Decision.ADMITTED;
+    }
+
+    // Buckets that have refilled completely carry no state worth keeping
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        userBuckets.evictIdle(now);
+        auctionBuckets.evictIdle(now);
+    }
+
+    private Counter rejections(String reason) {
+        return Counter.builder("bids.admission.rejected")
+                .description("Bids refused before reaching the bid engine")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static final class TokenBuckets {
+
+        private final ConcurrentHashMap<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+
+        // Nanoseconds per token, and how far ahead of now the arrival time may run (the burst)
+        private final long interval;
+
+        private final long tolerance;
+
+        TokenBuckets(double ratePerSecond, int burst) {
+            this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+            this.tolerance = interval * Math.max(0, burst - 1);
+        }
+
+        // Takes one token; returns 0 on success or the nanoseconds to wait before retrying
+        long take(String key) {
+            AtomicLong arrival = arrivals.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+            while (true) {
+                long now = System.nanoTime();
+                long current = arrival.get();
+                long base = Math.max(current, now);
+                long wait = base - tolerance - now;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (arrival.compareAndSet(current, base + interval)) {
+                    return 0;
+                }
+            }
+        }
+
+        // Gives back a token taken for a request that was then refused elsewhere
+        void refund(String key) {
+            AtomicLong arrival = arrivals.get(key);
+            if (arrival != null) {
+                arrival.addAndGet(-interval);
+            }
+        }
+
+        void evictIdle(long now) {
+            arrivals.values().removeIf(arrival -> arrival.get() < now);
+        }
+    }
+
+    @Getter
+    public static final class Decision {
+
+        static final Decision ADMITTED = new Decision(Outcome.ADMITTED, 0);
+
+        static final Decision BELOW_PRICE = new Decision(Outcome.BELOW_PRICE, 0);
+
+        private final Outcome outcome;
+
+        private final long retryAfterMs;
+
+        private Decision(Outcome outcome, long retryAfterMs) {
+            this.outcome = outcome;
+            this.retryAfterMs = retryAfterMs;
+        }
+
+        static Decision limited(long waitNanos) {
+            return new Decision(Outcome.RATE_LIMITED, Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos)));
+        }
+    }
+
+    public enum Outcome {
+        ADMITTED,
+        BELOW_PRICE,
+        RATE_LIMITED
+    }
+}
@@ -0,0 +1,763 @@
+
+package com.art.auction.service;
+
+import com.art.auction.event.AuctionClosedEvent;
+import com.art.auction.event.AuctionExtendedEvent;
+import com.art.auction.event.AuctionUpdatedEvent;
+import com.art.auction.event.BidAcceptedEvent;
+import com.art.auction.event.BidRefusedEvent;
+import com.art.auction.model.Auction;
+import com.art.auction.model.Bid;
+import com.art.auction.model.MaxBid;
+import com.art.auction.repository.AuctionRepository;
+import com.art.auction.repository.MaxBidRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer bid sequencer. Every auction is owned by exactly one shard, and each shard
+ * applies its work on one dedicated thread, so bids on the same auction are decided strictly
+ * in arrival order while different auctions run in parallel. Request threads hand work over
+ * through a lock-free queue and wait on the returned future. Nothing on a shard thread waits for
+ * Mongo: loads, flush barriers and edits run on a small I/O pool, and the auction's later work is
+ * held back on the shard until they complete, so other auctions on the shard keep moving.
+ */
+@Service
+public class BidEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidEngine.class);
+
+    @Autowired
+    private AuctionRepository auctionRepository;
+
+    @Autowired
+    private BidWriteBehind writeBehind;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MaxBidRepository maxBidRepository;
+
+    @Value("${app.bid-engine.shards:0}")
+    private int shardCount;
+
+    @Value("${app.bid-engine.io-threads:4}")
+    private int ioThreads;
+
+    @Value("${app.proxy-bid.increment:1}")
+    private double proxyIncrement;
+
+    private Shard[] shards;
+
+    // Blocking Mongo calls made on behalf of the shards; results are handed back to the owning shard
+    private ExecutorService io;
+
+    // Standing price of every auction a shard holds, readable from any thread
+    private final ConcurrentHashMap<String, Double> knownPrices = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        io = Executors.newFixedThreadPool(ioThreads, runnable -> {
+            Thread thread = new Thread(runnable, "bid-engine-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard("bid-engine-" + i);
+            shards[i].thread.start();
+        }
+        logger.info("Bid engine started with {} shards", count);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.running = false;
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : shards) {
+            shard.thread.join();
+        }
+        io.shutdown();
+    }
+
+    public CompletableFuture<BidResult> placeBid(String auctionId, String bidderId, String bidderName, double amount) {
+        Shard shard = shardFor(auctionId);
+        return shard.submit(auctionId, auction -> shard.placeBid(auction, bidderId, bidderName, amount));
+    }
+
+    /**
+     * Sets or raises the bidder's maximum bid. Competing maximums are resolved on the auction's
+     * shard and only the resulting standing bid is persisted and broadcast.
+     */
+    public CompletableFuture<BidResult> setMaxBid(String auctionId, String bidderId, String bidderName, double maxAmount) {
+        Shard shard = shardFor(auctionId);
+        return shard.submit(auctionId, auction -> shard.setMaxBid(auction, bidderId, bidderName, maxAmount));
+    }
+
+    public CompletableFuture<Boolean> cancelMaxBid(String auctionId, String bidderId) {
+        Shard shard = shardFor(auctionId);
+        return shard.submit(auctionId, auction -> shard.cancelMaxBid(auction, bidderId));
+    }
+
+    /**
+     * Moves an auction out of ACTIVE on its owning shard, so a close can never interleave
+     * with a bid that is being applied. Completes with the closed auction (without its bid
+     * list), or empty if the auction no longer exists or was already closed.
+     */
+    public CompletableFuture<Optional<Auction>> close(String auctionId, Auction.AuctionStatus status) {
+        Shard shard = shardFor(auctionId);
+        return shard.submit(auctionId, auction -> shard.close(auctionId, auction, status));
+    }
+
+    /**
+     * Applies a seller edit if the auction is still at {@code expectedVersion}. Runs on the
+     * auction's shard, so no bid can move the version between the check and the write.
+     */
+    public CompletableFuture<UpdateResult> update(String auctionId, String sellerId, long expectedVersion,
+                                                  String name, String description) {
+        Shard shard = shardFor(auctionId);
+        return shard.submit(auctionId, auction -> shard.update(auction, sellerId, expectedVersion, name, description));
+    }
+
+    /**
+     * Takes expired auctions off their shards ahead of a bulk close. Completes with the ids that
+     * were let go; an auction a soft-close bid has since extended stays on its shard and is left
+     * out. Once released, a late bid reloads the auction from Mongo and is refused as ended.
+     */
+    public CompletableFuture<List<String>> release(Collection<String> auctionIds) {
+        Map<Shard, List<String>> byShard = new HashMap<>();
+        for (String auctionId : auctionIds) {
+            byShard.computeIfAbsent(shardFor(auctionId), shard -> new ArrayList<>()).add(auctionId);
+        }
+
+        List<CompletableFuture<List<String>>> released = new ArrayList<>();
+        byShard.forEach((shard, ids) -> released.add(shard.submit(() -> shard.release(ids))));
+        return CompletableFuture.allOf(released.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> {
+                    List<String> ids = new ArrayList<>();
+                    released.forEach(future -> ids.addAll(future.join()));
+                    return ids;
+                });
+    }
+
+    // However it was closed, the shard lets go of it; a bid that reloaded it after a release is dropped here
+    @EventListener
+    public void onAuctionClosed(AuctionClosedEvent event) {
+        String auctionId = event.getAuction().getId();
+        Shard shard = shardFor(auctionId);
+        shard.submit(() -> shard.evict(auctionId));
+    }
+
+    // Price last decided by the auction's shard, or null if the engine does not hold the auction
+    public Double knownPrice(String auctionId) {
+        return knownPrices.get(auctionId);
+    }
+
+    // Seeds the shards with already-known active auctions, e.g. state recovered from the journal
+    public void preload(Collection<Auction> auctions) {
+        for (Auction auction : auctions) {
+            Shard shard = shardFor(auction.getId());
+            shard.submit(() -> shard.cache(auction));
+        }
+    }
+
+    private Shard shardFor(String auctionId) {
+        return shards[Math.floorMod(auctionId.hashCode(), shards.length)];
+    }
+
+    private final class Shard implements Runnable {
+
+        private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+
+        // Only touched by this shard's thread
+        private final Map<String, Auction> auctions = new HashMap<>();
+
+        private final Map<String, ProxyBidBook> proxies = new HashMap<>();
+
+        // Work for auctions with a load, flush or edit under way off this thread, in arrival order
+        private final Map<String, List<Pending<?>>> parked = new HashMap<>();
+
+        private final Thread thread;
+
+        private volatile boolean running = true;
+
+        Shard(String name) {
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+        }
+
+        <T> CompletableFuture<T> submit(Supplier<T> work) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            execute(() -> {
+                try {
+                    future.complete(work.get());
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            return future;
+        }
+
+        // Runs work against the auction once this shard holds it, after anything already waiting on it
+        <T> CompletableFuture<T> submit(String auctionId, Function<Auction, CompletableFuture<T>> work) {
+            Pending<T> pending = new Pending<>(work);
+            execute(() -> enter(auctionId, pending));
+            return pending.result;
+        }
+
+        void execute(Runnable task) {
+            queue.offer(task);
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                Runnable task = queue.poll();
+                if (task == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    // Tasks complete their own futures before anything that can throw; the shard carries on
+                    logger.error("Bid engine task failed on {}", thread.getName(), e);
+                }
+            }
+        }
+
+        // Runs listeners and broadcasts once the engine has decided; a failing one is logged, not rethrown
+        private void announce(Runnable publication) {
+            try {
+                publication.run();
+            } catch (RuntimeException e) {
+                logger.error("Bid engine listener failed on {}", thread.getName(), e);
+            }
+        }
+
+        CompletableFuture<BidResult> placeBid(Auction auction, String bidderId, String bidderName, double amount) {
+            LocalDateTime now = LocalDateTime.now();
+            BidResult.Status refusal = checkOpen(auction, bidderId, now);
+            if (refusal != null) {
+                return rejected(refusal);
+            }
+
+            if (amount <= auction.getCurrentBid()) {
+                return rejected(BidResult.Status.BID_TOO_LOW);
+            }
+
+            // A hand-placed bid loses to any competing max bid that is at least as high
+            auction.setCurrentBid(amount);
+            auction.setCurrentBidderId(bidderId);
+            auction.setCurrentBidderName(bidderName);
+            ProxyBidBook.Resolution resolution = resolve(proxies.get(auction.getId()), auction, true);
+            if (resolution != null) {
+                if (!bidderId.equals(resolution.leader.getBidderId())) {
+                    // Outbid at once, but still a bid: it goes into the history ahead of the proxy's answer
+                    emit(auction, now);
+                }
+                lead(auction, resolution);
+            }
+
+            CompletableFuture<BidResult> result = emit(auction, now);
+            if (!bidderId.equals(auction.getCurrentBidderId())) {
+                return result.thenApply(accepted -> BidResult.rejected(BidResult.Status.OUTBID));
+            }
+            return result;
+        }
+
+        CompletableFuture<BidResult> setMaxBid(Auction auction, String bidderId, String bidderName, double maxAmount) {
+            LocalDateTime now = LocalDateTime.now();
+            BidResult.Status refusal = checkOpen(auction, bidderId, now);
+            if (refusal != null) {
+                return rejected(refusal);
+            }
+
+            if (maxAmount <= auction.getCurrentBid()) {
+                return rejected(BidResult.Status.BID_TOO_LOW);
+            }
+
+            ProxyBidBook book = proxies.get(auction.getId());
+            // Take it out before replacing it, the book is ordered by amount and time
+            MaxBid previous = book.remove(bidderId);
+            // A fresh object each time, the write-behind may still be saving the previous one
+            MaxBid maxBid = new MaxBid();
+            maxBid.setId(previous != null ? previous.getId() : new ObjectId().toHexString());
+            maxBid.setAuctionId(auction.getId());
+            maxBid.setBidderId(bidderId);
+            maxBid.setBidderName(bidderName);
+            maxBid.setMaxAmount(maxAmount);
+            // Changing a max bid gives up its place in a tie
+            maxBid.setCreatedAt(now);
+            book.put(maxBid);
+            writeBehind.saveMaxBid(maxBid);
+
+            ProxyBidBook.Resolution resolution = resolve(book, auction, false);
+            if (resolution == null) {
+                // The standing bid holds, e.g. the leader raised their own maximum
+                return CompletableFuture.completedFuture(BidResult.accepted(null, snapshot(auction)));
+            }
+
+            lead(auction, resolution);
+            CompletableFuture<BidResult> result = emit(auction, now);
+            if (!bidderId.equals(auction.getCurrentBidderId())) {
+                return result.thenApply(accepted -> BidResult.rejected(BidResult.Status.OUTBID));
+            }
+            return result;
+        }
+
+        CompletableFuture<Boolean> cancelMaxBid(Auction auction, String bidderId) {
+            ProxyBidBook book = auction == null ? null : proxies.get(auction.getId());
+            MaxBid removed = book == null ? null : book.remove(bidderId);
+            if (removed == null) {
+                return CompletableFuture.completedFuture(false);
+            }
+            // Stops future automatic bids; a bid already standing for this bidder stays
+            writeBehind.deleteMaxBid(removed.getId());
+            return CompletableFuture.completedFuture(true);
+        }
+
+        CompletableFuture<Optional<Auction>> close(String auctionId, Auction auction, Auction.AuctionStatus status) {
+            if (auction == null || auction.getStatus() != Auction.AuctionStatus.ACTIVE) {
+                return CompletableFuture.completedFuture(Optional.empty());
+            }
+            if (status == Auction.AuctionStatus.ENDED && auction.getEndTime().isAfter(LocalDateTime.now())) {
+                // A soft-close bid moved the end after this close was scheduled
+                return CompletableFuture.completedFuture(Optional.empty());
+            }
+
+            // Bids wait until the status has flipped; bids accepted before the close reach the database first
+            park(auctionId);
+            CompletableFuture<Optional<Auction>> result = new CompletableFuture<>();
+            writeBehind.flush()
+                    .thenApplyAsync(flushed -> {
+                        Optional<Auction> closed = auctionRepository.closeAuction(auctionId, status);
+                        // Nothing can bid on its behalf any more
+                        closed.ifPresent(done -> maxBidRepository.deleteByAuctionId(auctionId));
+                        return closed;
+                    }, io)
+                    .whenComplete((closed, e) -> execute(() -> {
+                        evict(auctionId);
+                        if (e != null) {
+                            result.completeExceptionally(e);
+                        } else {
+                            result.complete(closed);
+                        }
+                        resume(auctionId);
+                        if (e == null) {
+                            closed.ifPresent(done -> announce(() -> eventPublisher.publishEvent(new AuctionClosedEvent(done))));
+                        }
+                    }));
+            return result;
+        }
+
+        CompletableFuture<UpdateResult> update(Auction auction, String sellerId, long expectedVersion,
+                                               String name, String description) {
+            if (auction == null) {
+                return CompletableFuture.completedFuture(UpdateResult.refused(UpdateResult.Status.AUCTION_NOT_FOUND, 0));
+            }
+            UpdateResult.Status refusal = null;
+            if (!auction.getSellerId().equals(sellerId)) {
+                refusal = UpdateResult.Status.NOT_OWNER;
+            } else if (auction.getStatus() != Auction.AuctionStatus.ACTIVE
+                    || !auction.getEndTime().isAfter(LocalDateTime.now())) {
+                refusal = UpdateResult.Status.AUCTION_NOT_ACTIVE;
+            } else if (auction.getVersion() != expectedVersion) {
+                refusal = UpdateResult.Status.VERSION_MISMATCH;
+            }
+            if (refusal != null) {
+                return CompletableFuture.completedFuture(UpdateResult.refused(refusal, auction.getVersion()));
+            }
+
+            // No bid can move the version until the edit is written; the database only reaches this
+            // shard's version once its bids are flushed
+            String auctionId = auction.getId();
+            park(auctionId);
+            CompletableFuture<UpdateResult> result = new CompletableFuture<>();
+            writeBehind.flush()
+                    .thenApplyAsync(flushed -> auctionRepository.updateDetails(auctionId, expectedVersion, name, description), io)
+                    .whenComplete((updated, e) -> execute(() -> {
+                        if (e != null) {
+                            evict(auctionId);
+                            result.completeExceptionally(e);
+                        } else if (updated.isEmpty()) {
+                            // Out of step with the database; reload it on next use
+                            evict(auctionId);
+                            result.complete(UpdateResult.refused(UpdateResult.Status.VERSION_MISMATCH, auction.getVersion()));
+                        } else {
+                            // The stored document carries every field, including ones this shard's copy
+                            // may lack (e.g. one seeded from the journal); it becomes the shard's copy
+                            Auction edited = updated.get();
+                            if (auctions.containsKey(auctionId)) {
+                                auctions.put(auctionId, edited);
+                            }
+                            result.complete(UpdateResult.updated(edited.getVersion()));
+                        }
+                        resume(auctionId);
+                        if (e == null && updated.isPresent()) {
+                            announce(() -> eventPublisher.publishEvent(new AuctionUpdatedEvent(updated.get())));
+                        }
+                    }));
+            return result;
+        }
+
+        List<String> release(List<String> auctionIds) {
+            LocalDateTime now = LocalDateTime.now();
+            List<String> released = new ArrayList<>(auctionIds.size());
+            for (String auctionId : auctionIds) {
+                List<Pending<?>> waiting = parked.get(auctionId);
+                if (waiting != null) {
+                    // Let go once the step under way finishes; the close only flips it if it has really ended
+                    waiting.add(new Pending<>(auction -> {
+                        if (auctions.containsKey(auctionId) && !auctions.get(auctionId).getEndTime().isAfter(LocalDateTime.now())) {
+                            evict(auctionId);
+                        }
+                        return CompletableFuture.completedFuture(null);
+                    }));
+                    released.add(auctionId);
+                    continue;
+                }
+                Auction cached = auctions.get(auctionId);
+                if (cached != null && cached.getEndTime().isAfter(now)) {
+                    continue;
+                }
+                evict(auctionId);
+                released.add(auctionId);
+            }
+            return released;
+        }
+
+        private void enter(String auctionId, Pending<?> pending) {
+            List<Pending<?>> waiting = parked.get(auctionId);
+            if (waiting != null) {
+                waiting.add(pending);
+                return;
+            }
+            Auction auction = auctions.get(auctionId);
+            if (auction != null && proxies.containsKey(auctionId)) {
+                pending.run(auction);
+                return;
+            }
+            park(auctionId).add(pending);
+            load(auctionId);
+        }
+
+        private List<Pending<?>> park(String auctionId) {
+            List<Pending<?>> waiting = new ArrayList<>();
+            parked.put(auctionId, waiting);
+            return waiting;
+        }
+
+        // Hands the work held back during an async step to whatever the shard holds now
+        private void resume(String auctionId) {
+            List<Pending<?>> waiting = parked.remove(auctionId);
+            if (waiting != null) {
+                waiting.forEach(pending -> enter(auctionId, pending));
+            }
+        }
+
+        // Reads the auction and its max bids on the I/O pool; the auction's work waits until they arrive
+        private void load(String auctionId) {
+            boolean held = auctions.containsKey(auctionId);
+            CompletableFuture.supplyAsync(() -> {
+                Auction auction = held ? null : auctionRepository.findById(auctionId).orElse(null);
+                ProxyBidBook book = new ProxyBidBook();
+                if (held || (auction != null && auction.getStatus() == Auction.AuctionStatus.ACTIVE)) {
+                    maxBidRepository.findByAuctionId(auctionId).forEach(book::put);
+                }
+                return new Loaded(auction, book);
+            }, io).whenComplete((loaded, e) -> execute(() -> {
+                if (e != null) {
+                    List<Pending<?>> waiting = parked.remove(auctionId);
+                    if (waiting != null) {
+                        waiting.forEach(pending -> pending.fail(e));
+                    }
+                    return;
+                }
+                // An expired auction may already have been released for closing; holding it again would
+                // keep it from the close, so it is only read
+                if (loaded.auction != null && loaded.auction.getStatus() == Auction.AuctionStatus.ACTIVE
+                        && loaded.auction.getEndTime().isAfter(LocalDateTime.now())) {
+                    cache(loaded.auction);
+                }
+                if (auctions.containsKey(auctionId)) {
+                    proxies.putIfAbsent(auctionId, loaded.book);
+                    resume(auctionId);
+                    return;
+                }
+                if (held) {
+                    // Evicted while its max bids were read; the waiting work reads it again
+                    resume(auctionId);
+                    return;
+                }
+
+                // Not held, e.g. closed, expired or missing: the waiting work sees the document as read, and refuses bids
+                List<Pending<?>> waiting = parked.remove(auctionId);
+                for (int i = 0; i < waiting.size(); i++) {
+                    List<Pending<?>> again = parked.get(auctionId);
+                    if (again != null) {
+                        again.addAll(waiting.subList(i, waiting.size()));
+                        return;
+                    }
+                    waiting.get(i).run(loaded.auction);
+                }
+            }));
+        }
+
+        private BidResult.Status checkOpen(Auction auction, String bidderId, LocalDateTime now) {
+            if (auction == null) {
+                return BidResult.Status.AUCTION_NOT_FOUND;
+            }
+
+            if (auction.getStatus() != Auction.AuctionStatus.ACTIVE) {
+                return BidResult.Status.AUCTION_NOT_ACTIVE;
+            }
+
+            // Expired auctions are left for AuctionService to close so that winners get notified
+            if (auction.getEndTime().isBefore(now)) {
+                return BidResult.Status.AUCTION_ENDED;
+            }
+
+            if (auction.getSellerId().equals(bidderId)) {
+                return BidResult.Status.OWN_AUCTION;
+            }
+            return null;
+        }
+
+        private ProxyBidBook.Resolution resolve(ProxyBidBook book, Auction auction, boolean standingIsNewest) {
+            ProxyBidBook.Resolution resolution = book.resolve(auction, proxyIncrement, standingIsNewest);
+            // Outbid max bids are dropped from the book; drop them from the database in the same order
+            for (MaxBid exhausted : book.takeExhausted()) {
+                writeBehind.deleteMaxBid(exhausted.getId());
+            }
+            return resolution;
+        }
+
+        private void lead(Auction auction, ProxyBidBook.Resolution resolution) {
+            auction.setCurrentBid(resolution.price);
+            auction.setCurrentBidderId(resolution.leader.getBidderId());
+            auction.setCurrentBidderName(resolution.leader.getBidderName());
+        }
+
+        // Records the auction's standing bid as one bid: persisted, journalled and broadcast once
+        private CompletableFuture<BidResult> emit(Auction auction, LocalDateTime now) {
+            String auctionId = auction.getId();
+
+            Bid bid = new Bid();
+            bid.setId(new ObjectId().toHexString());
+            bid.setAuctionId(auctionId);
+            bid.setBidderId(auction.getCurrentBidderId());
+            bid.setBidderName(auction.getCurrentBidderName());
+            bid.setAmount(auction.getCurrentBid());
+            bid.setTimestamp(now);
+
+            auction.setBidCount(auction.getBidCount() + 1);
+            auction.setUpdatedAt(now);
+            auction.setVersion(auction.getVersion() + 1);
+            LocalDateTime extendedEnd = extendForSoftClose(auction, now);
+            boolean extended = extendedEnd != null;
+            // Listeners and clients see the auction as this bid left it, not as later bids do
+            Auction decided = snapshot(auction);
+
+            // Ordered here, persisted in batches; the flush re-checks the same conditions in the database.
+            // Enqueue happens before the journal sees the bid, so a snapshot's flush barrier covers it.
+            CompletableFuture<Boolean> written = writeBehind.enqueue(bid, extendedEnd);
+
+            if (writeBehind.getMode() == BidWriteBehind.DurabilityMode.ACK_AFTER_ENQUEUE) {
+                // Only allowed with the journal on: it records the bid before the bidder hears back
+                publish(bid, decided, extended);
+                written.whenComplete((applied, e) -> {
+                    if (!Boolean.TRUE.equals(applied)) {
+                        execute(() -> {
+                            evict(auctionId);
+                            announce(() -> eventPublisher.publishEvent(new BidRefusedEvent(bid)));
+                        });
+                    }
+                });
+                return CompletableFuture.completedFuture(BidResult.accepted(bid, decided));
+            }
+
+            // Nobody hears of the bid until the database has taken it; completions arrive in queue order
+            CompletableFuture<BidResult> result = new CompletableFuture<>();
+            written.whenComplete((applied, e) -> execute(() -> {
+                if (e != null) {
+                    evict(auctionId);
+                    result.completeExceptionally(e);
+                } else if (!applied) {
+                    evict(auctionId);
+                    result.complete(BidResult.rejected(BidResult.Status.OUTBID));
+                } else {
+                    // Guarded listeners, so the bidder's answer cannot be lost to one of them
+                    publish(bid, decided, extended);
+                    result.complete(BidResult.accepted(bid, decided));
+                }
+            }));
+            return result;
+        }
+
+        // Each listener and broadcast is guarded on its own, so one failure does not silence the rest
+        private void publish(Bid bid, Auction auction, boolean extended) {
+            if (auctions.containsKey(auction.getId())) {
+                knownPrices.put(auction.getId(), auction.getCurrentBid());
+            }
+            announce(() -> eventPublisher.publishEvent(new BidAcceptedEvent(bid, auction)));
+            if (extended) {
+                announce(() -> eventPublisher.publishEvent(new AuctionExtendedEvent(auction)));
+            }
+            announce(() -> webSocketService.notifyBidPlaced(auction));
+            if (extended) {
+                announce(() -> webSocketService.notifyAuctionExtended(auction));
+            }
+        }
+
+        /**
+         * Pushes the end time out when a bid lands inside the auction's soft-close window. Decided
+         * here, in the same step that accepts the bid, so no bid can slip in under the old end time.
+         * The new end is written with the bid by the write-behind; every close goes through this
+         * engine and flushes first, so none acts on the stale end still in Mongo. Returns the new
+         * end, or null if the bid did not extend the auction.
+         */
+        private LocalDateTime extendForSoftClose(Auction auction, LocalDateTime now) {
+            if (auction.getSoftCloseWindowSeconds() <= 0) {
+                return null;
+            }
+            LocalDateTime endTime = auction.getEndTime();
+            if (endTime.minusSeconds(auction.getSoftCloseWindowSeconds()).isAfter(now)) {
+                return null;
+            }
+
+            LocalDateTime extendedEnd = endTime.plusSeconds(auction.getSoftCloseExtensionSeconds());
+            LocalDateTime cap = auction.getSoftCloseMaxEndTime();
+            if (cap != null && extendedEnd.isAfter(cap)) {
+                extendedEnd = cap;
+            }
+            if (!extendedEnd.isAfter(endTime)) {
+                return null;
+            }
+
+            auction.setEndTime(extendedEnd);
+            auction.setVersion(auction.getVersion() + 1);
+            return extendedEnd;
+        }
+
+        private CompletableFuture<BidResult> rejected(BidResult.Status status) {
+            return CompletableFuture.completedFuture(BidResult.rejected(status));
+        }
+
+        private Auction cache(Auction auction) {
+            Auction existing = auctions.putIfAbsent(auction.getId(), auction);
+            if (existing != null) {
+                return existing;
+            }
+            knownPrices.put(auction.getId(), auction.getCurrentBid());
+            return auction;
+        }
+
+        private Auction evict(String auctionId) {
+            knownPrices.remove(auctionId);
+            proxies.remove(auctionId);
+            return auctions.remove(auctionId);
+        }
+    }
+
+    // Copy of the engine's auction for events and results; the shard keeps changing the original
+    private static Auction snapshot(Auction source) {
+        Auction auction = new Auction();
+        auction.setId(source.getId());
+        auction.setName(source.getName());
+        auction.setDescription(source.getDescription());
+        auction.setSellerId(source.getSellerId());
+        auction.setSellerName(source.getSellerName());
+        auction.setMinBid(source.getMinBid());
+        auction.setCurrentBid(source.getCurrentBid());
+        auction.setCurrentBidderId(source.getCurrentBidderId());
+        auction.setCurrentBidderName(source.getCurrentBidderName());
+        auction.setImageUrl(source.getImageUrl());
+        auction.setBidCount(source.getBidCount());
+        auction.setRecentBids(source.getRecentBids());
+        auction.setStatus(source.getStatus());
+        auction.setEndTime(source.getEndTime());
+        auction.setSoftCloseWindowSeconds(source.getSoftCloseWindowSeconds());
+        auction.setSoftCloseExtensionSeconds(source.getSoftCloseExtensionSeconds());
+        auction.setSoftCloseMaxEndTime(source.getSoftCloseMaxEndTime());
+        auction.setCreatedAt(source.getCreatedAt());
+        auction.setUpdatedAt(source.getUpdatedAt());
+        auction.setVersion(source.getVersion());
+        return auction;
+    }
+
+    // Work for one auction, run on its shard once the auction is available
+    private static final class Pending<T> {
+
+        private final Function<Auction, CompletableFuture<T>> work;
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Pending(Function<Auction, CompletableFuture<T>> work) {
+            this.work = work;
+        }
+
+        void run(Auction auction) {
+            try {
+                work.apply(auction).whenComplete((value, e) -> {
+                    if (e != null) {
+                        result.completeExceptionally(e);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        void fail(Throwable e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    // What an I/O thread read for a shard: the auction (null if the shard already held it) and its max bids
+    private static final class Loaded {
+
+        private final Auction auction;
+
+        private final ProxyBidBook book;
+
+        Loaded(Auction auction, ProxyBidBook book) {
+            this.auction = auction;
+            this.book = book;
+        }
+    }
+}
@@ -0,0 +1,683 @@
+
+package com.art.auction.service;
+
+import com.art.auction.event.AuctionClosedEvent;
+import com.art.auction.event.AuctionCreatedEvent;
+import com.art.auction.event.AuctionExtendedEvent;
+import com.art.auction.event.AuctionUpdatedEvent;
+import com.art.auction.event.BidAcceptedEvent;
+import com.art.auction.model.Auction;
+import com.art.auction.model.Bid;
+import com.art.auction.repository.AuctionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of auction events with periodic snapshots.
+ *
+ * <p>Every created auction, accepted bid and close is appended to the current segment before the
+ * bidder is acknowledged, so a process crash loses nothing that was acknowledged even when bids are
+ * acknowledged before they reach Mongo. The journal also keeps a replica of the active auctions; a
+ * snapshot writes that replica out once every journalled bid has been flushed, and segments fully
+ * covered by the snapshot are deleted. On startup the latest snapshot is loaded, the journal tail
+ * is replayed, any tail writes are re-applied to Mongo and the bid engine is seeded with the result.
+ * Auctions whose replica no longer matches Mongo (a journalled bid the flush then refused) are left
+ * out of the seed, so the engine reads them from Mongo instead.
+ *
+ * <p>Records are encoded by the calling thread; only numbering them and copying them into the
+ * segment happen under the journal's lock. Pages reach disk from the scheduled force, which never
+ * takes that lock. Snapshots wait for the write-behind flush on their own thread, never on the
+ * shared scheduler thread.
+ *
+ * <p>Record layout: {@code [int length][int crc32][byte type][long seq][fields...]}. A zero length
+ * marks the end of a segment's data; a bad checksum marks a torn write and ends replay.
+ */
+@Service
+@DependsOn({"mongoIndexSetup", "auctionBidSummaryMigration"})
+public class BidJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidJournal.class);
+
+    private static final String SEGMENT_PREFIX = "journal-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+
+    private static final int SNAPSHOT_MAGIC = 0x41524a53;
+
+    private static final int HEADER_SIZE = 8;
+
+    @Autowired
+    private BidEngine bidEngine;
+
+    @Autowired
+    private BidWriteBehind writeBehind;
+
+    @Autowired
+    private AuctionRepository auctionRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.journal.dir:data/journal}")
+    private String journalDir;
+
+    @Value("${app.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${app.journal.flush-timeout-ms:30000}")
+    private long flushTimeoutMs;
+
+    private static final int RECONCILE_BATCH = 1000;
+
+    private Path directory;
+
+    // Written under this: the current segment, the sequence and the active-auction replica. The
+    // replica's key set is also read without the lock while a record is being encoded.
+    private volatile MappedByteBuffer segment;
+
+    private long sequence;
+
+    private final Map<String, Auction> replica = new ConcurrentHashMap<>();
+
+    // Full segments not yet forced to disk
+    private final Queue<MappedByteBuffer> retired = new ConcurrentLinkedQueue<>();
+
+    private final ThreadLocal<ByteBuffer> scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocate(64 * 1024));
+
+    private final ThreadLocal<CRC32> crc = ThreadLocal.withInitial(CRC32::new);
+
+    private ExecutorService snapshotter;
+
+    private final AtomicBoolean snapshotting = new AtomicBoolean();
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        directory = Paths.get(journalDir).toAbsolutePath().normalize();
+        Files.createDirectories(directory);
+
+        recover();
+        openSegment(sequence + 1);
+        writeSnapshot();
+
+        snapshotter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bid-journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (snapshotter != null) {
+            snapshotter.shutdownNow();
+        }
+        force();
+    }
+
+    @EventListener
+    public void onAuctionCreated(AuctionCreatedEvent event) {
+        if (enabled) {
+            append(Type.CREATED, event.getAuction(), null);
+        }
+    }
+
+    @EventListener
+    public void onBidAccepted(BidAcceptedEvent event) {
+        if (enabled) {
+            append(Type.BID_ACCEPTED, event.getAuction(), event.getBid());
+        }
+    }
+
+    @EventListener
+    public void onAuctionExtended(AuctionExtendedEvent event) {
+        if (enabled) {
+            append(Type.EXTENDED, event.getAuction(), null);
+        }
+    }
+
+    @EventListener
+    public void onAuctionUpdated(AuctionUpdatedEvent event) {
+        if (enabled) {
+            append(Type.UPDATED, event.getAuction(), null);
+        }
+    }
+
+    @EventListener
+    public void onAuctionClosed(AuctionClosedEvent event) {
+        if (enabled) {
+            Type type = event.getAuction().getStatus() == Auction.AuctionStatus.CANCELLED ? Type.CANCELLED : Type.CLOSED;
+            append(type, event.getAuction(), null);
+        }
+    }
+
+    // Pushes journalled pages to disk; a process crash is already covered by the mapping itself.
+    // Runs without the append lock: bids keep being journalled while the pages are written out.
+    @Scheduled(fixedDelayString = "${app.journal.force-interval-ms:1000}")
+    public void force() {
+        MappedByteBuffer full;
+        while ((full = retired.poll()) != null) {
+            full.force();
+        }
+        MappedByteBuffer current = segment;
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    // Hands the snapshot to its own thread; a run still waiting on its flush makes this one a no-op
+    @Scheduled(fixedDelayString = "${app.journal.snapshot-interval-ms:60000}",
+            initialDelayString = "${app.journal.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        if (!enabled || !snapshotting.compareAndSet(false, true)) {
+            return;
+        }
+        snapshotter.execute(() -> {
+            try {
+                writeSnapshot();
+            } finally {
+                snapshotting.set(false);
+            }
+        });
+    }
+
+    /**
+     * Writes the replica to a new snapshot and deletes the segments it makes redundant. The
+     * write-behind queue is flushed first, so everything the snapshot covers is also in Mongo;
+     * a flush that does not finish in time skips this snapshot rather than waiting on it.
+     */
+    private void writeSnapshot() {
+        long coveredSequence;
+        List<Auction> auctions;
+        synchronized (this) {
+            coveredSequence = sequence;
+            auctions = new ArrayList<>(replica.size());
+            for (Auction auction : replica.values()) {
+                auctions.add(copyState(auction));
+            }
+        }
+        if (!awaitFlush()) {
+            logger.warn("Write-behind flush did not finish within {} ms, skipping journal snapshot", flushTimeoutMs);
+            return;
+        }
+
+        try {
+            Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                buffer.putInt(SNAPSHOT_MAGIC).putLong(coveredSequence).putInt(auctions.size());
+                for (Auction auction : auctions) {
+                    if (buffer.remaining() < 8 * 1024) {
+                        drain(channel, buffer);
+                    }
+                    writeAuction(buffer, auction);
+                }
+                drain(channel, buffer);
+                channel.force(true);
+            }
+            Files.move(temp, directory.resolve(SNAPSHOT_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            compact(coveredSequence);
+        } catch (IOException e) {
+            logger.error("Failed to write journal snapshot: {}", e.getMessage());
+        }
+    }
+
+    private boolean awaitFlush() {
+        try {
+            writeBehind.flush().get(flushTimeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void append(Type type, Auction auction, Bid bid) {
+        ByteBuffer record = scratch.get();
+        record.clear();
+        record.position(HEADER_SIZE);
+        record.put((byte) type.ordinal());
+        // The sequence number is filled in under the lock
+        record.putLong(0);
+        if (type == Type.BID_ACCEPTED) {
+            if (!replica.containsKey(auction.getId())) {
+                // First bid seen for an auction created before the journal existed
+                writeAuction(record, auction);
+            } else {
+                writeString(record, null);
+            }
+            writeBid(record, bid, auction);
+        } else if (type == Type.CREATED || type == Type.UPDATED) {
+            writeAuction(record, auction);
+        } else if (type == Type.EXTENDED) {
+            writeString(record, auction.getId());
+            record.putLong(toMillis(auction.getEndTime()));
+        } else {
+            writeString(record, auction.getId());
+        }
+        int length = record.position() - HEADER_SIZE;
+        record.putInt(0, length);
+        record.flip();
+
+        synchronized (this) {
+            long seq = sequence + 1;
+            record.putLong(HEADER_SIZE + 1, seq);
+            CRC32 checksum = crc.get();
+            checksum.reset();
+            checksum.update(record.array(), HEADER_SIZE, length);
+            record.putInt(4, (int) checksum.getValue());
+
+            if (segment.remaining() < record.remaining() + 4) {
+                // Forced by the next scheduled force rather than here, under the lock
+                retired.add(segment);
+                openSegment(seq);
+            }
+            segment.put(record);
+            sequence = seq;
+
+            try {
+                apply(ByteBuffer.wrap(record.array(), HEADER_SIZE, length).slice(), null, null);
+            } catch (RuntimeException e) {
+                logger.error("Journal replica out of step at {}: {}", seq, e.getMessage());
+            }
+        }
+    }
+
+    private synchronized void recover() throws IOException {
+        long snapshotSequence = 0;
+        Path snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshotPath)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+            if (buffer.getInt() == SNAPSHOT_MAGIC) {
+                snapshotSequence = buffer.getLong();
+                int count = buffer.getInt();
+                for (int i = 0; i < count; i++) {
+                    Auction auction = readAuction(buffer);
+                    replica.put(auction.getId(), auction);
+                }
+            }
+        }
+        sequence = snapshotSequence;
+
+        List<TailBid> tailBids = new ArrayList<>();
+        List<Auction> tailCloses = new ArrayList<>();
+        CRC32 checksum = new CRC32();
+        for (Path path : segments()) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                while (buffer.remaining() >= HEADER_SIZE) {
+                    int length = buffer.getInt();
+                    int expected = buffer.getInt();
+                    if (length <= 0 || length > buffer.remaining()) {
+                        break;
+                    }
+                    ByteBuffer record = buffer.slice(buffer.position(), length);
+                    buffer.position(buffer.position() + length);
+
+                    byte[] bytes = new byte[length];
+                    record.duplicate().get(bytes);
+                    checksum.reset();
+                    checksum.update(bytes);
+                    if ((int) checksum.getValue() != expected) {
+                        logger.warn("Torn journal record in {}, ignoring the rest of the segment", path.getFileName());
+                        break;
+                    }
+
+                    long seq = record.getLong(1);
+                    if (seq > sequence) {
+                        apply(record, tailBids, tailCloses);
+                        sequence = seq;
+                    }
+                }
+            }
+        }
+
+        logger.info("Recovered {} active auctions from journal (snapshot {}, replayed to {})",
+                replica.size(), snapshotSequence, sequence);
+
+        // Anything after the snapshot may not have reached Mongo; the writes are conditional, so
+        // replaying ones that did is harmless
+        for (TailBid tail : tailBids) {
+            writeBehind.enqueue(tail.bid, tail.extendedEnd);
+        }
+        if (!awaitFlush()) {
+            // Reconciling against writes still in flight would seed the engine with the wrong prices
+            throw new IllegalStateException("Journal tail was not written to MongoDB within " + flushTimeoutMs + " ms");
+        }
+        for (Auction auction : tailCloses) {
+            auctionRepository.closeAuction(auction.getId(), auction.getStatus());
+        }
+        reconcile();
+
+        List<Auction> active = new ArrayList<>();
+        for (Auction auction : replica.values()) {
+            active.add(copyState(auction));
+        }
+        bidEngine.preload(active);
+    }
+
+    /**
+     * Drops replica entries that disagree with Mongo once the tail has been re-applied: a journalled
+     * bid the flush refused, or an auction closed or changed without the journal hearing of it.
+     * The bid engine then reads those auctions from Mongo instead of starting from a wrong price.
+     */
+    private void reconcile() {
+        List<String> ids = new ArrayList<>(replica.keySet());
+        int dropped = 0;
+        for (int from = 0; from < ids.size(); from += RECONCILE_BATCH) {
+            List<String> chunk = ids.subList(from, Math.min(from + RECONCILE_BATCH, ids.size()));
+            Query query = new Query(Criteria.where("_id").in(chunk));
+            query.fields().include("currentBid", "status", "version");
+            Map<String, Auction> stored = new HashMap<>();
+            for (Auction auction : mongoTemplate.find(query, Auction.class)) {
+                stored.put(auction.getId(), auction);
+            }
+
+            for (String id : chunk) {
+                Auction journalled = replica.get(id);
+                Auction current = stored.get(id);
+                if (current == null || current.getStatus() != Auction.AuctionStatus.ACTIVE
+                        || current.getVersion() != journalled.getVersion()
+                        || current.getCurrentBid() != journalled.getCurrentBid()) {
+                    replica.remove(id);
+                    dropped++;
+                }
+            }
+        }
+        if (dropped > 0) {
+            logger.warn("{} journalled auctions differ from MongoDB and will be read from there", dropped);
+        }
+    }
+
+    // Applies one record body to the replica, optionally collecting the writes it implies
+    private void apply(ByteBuffer record, List<TailBid> tailBids, List<Auction> tailCloses) {
+        Type type = Type.values()[record.get()];
+        record.getLong();
+
+        switch (type) {
+            case CREATED:
+            case UPDATED: {
+                Auction auction = readAuction(record);
+                replica.put(auction.getId(), auction);
+                break;
+            }
+            case BID_ACCEPTED: {
+                if (record.getInt(record.position()) >= 0) {
+                    Auction auction = readAuction(record);
+                    replica.put(auction.getId(), auction);
+                } else {
+                    readString(record);
+                }
+                Bid bid = readBid(record);
+                int bidCount = record.getInt();
+                long version = record.getLong();
+
+                Auction auction = replica.get(bid.getAuctionId());
+                if (auction != null) {
+                    auction.setCurrentBid(bid.getAmount());
+                    auction.setCurrentBidderId(bid.getBidderId());
+                    auction.setCurrentBidderName(bid.getBidderName());
+                    auction.setBidCount(bidCount);
+                    auction.setVersion(version);
+                    auction.setUpdatedAt(bid.getTimestamp());
+                }
+                if (tailBids != null) {
+                    tailBids.add(new TailBid(bid));
+                }
+                break;
+            }
+            case EXTENDED: {
+                String auctionId = readString(record);
+                LocalDateTime endTime = fromMillis(record.getLong());
+                Auction auction = replica.get(auctionId);
+                if (auction != null) {
+                    auction.setEndTime(endTime);
+                }
+                if (tailBids != null) {
+                    // Journalled right after the bid that caused it, which writes it to Mongo
+                    for (int i = tailBids.size() - 1; i >= 0; i--) {
+                        TailBid tail = tailBids.get(i);
+                        if (tail.bid.getAuctionId().equals(auctionId)) {
+                            tail.extendedEnd = endTime;
+                            break;
+                        }
+                    }
+                }
+                break;
+            }
+            default: {
+                Auction auction = replica.remove(readString(record));
+                if (auction != null && tailCloses != null) {
+                    auction.setStatus(type == Type.CANCELLED
+                            ? Auction.AuctionStatus.CANCELLED : Auction.AuctionStatus.ENDED);
+                    tailCloses.add(auction);
+                }
+                break;
+            }
+        }
+    }
+
+    private void openSegment(long firstSequence) {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentSizeMb * 1024 * 1024);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open journal segment " + path, e);
+        }
+    }
+
+    // Deletes every segment whose records are all covered by the snapshot at the given sequence
+    private void compact(long coveredSequence) throws IOException {
+        List<Path> paths = segments();
+        for (int i = 0; i + 1 < paths.size(); i++) {
+            if (firstSequence(paths.get(i + 1)) <= coveredSequence + 1) {
+                Files.deleteIfExists(paths.get(i));
+            }
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long firstSequence(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Only the fields the bid engine needs to decide bids. Descriptive fields (description, image,
+    // creation time) are not journalled, so nothing the engine publishes in full may come from here.
+    private static Auction copyState(Auction source) {
+        Auction auction = new Auction();
+        auction.setId(source.getId());
+        auction.setName(source.getName());
+        auction.setSellerId(source.getSellerId());
+        auction.setSellerName(source.getSellerName());
+        auction.setMinBid(source.getMinBid());
+        auction.setCurrentBid(source.getCurrentBid());
+        auction.setCurrentBidderId(source.getCurrentBidderId());
+        auction.setCurrentBidderName(source.getCurrentBidderName());
+        auction.setStatus(source.getStatus());
+        auction.setEndTime(source.getEndTime());
+        auction.setSoftCloseWindowSeconds(source.getSoftCloseWindowSeconds());
+        auction.setSoftCloseExtensionSeconds(source.getSoftCloseExtensionSeconds());
+        auction.setSoftCloseMaxEndTime(source.getSoftCloseMaxEndTime());
+        auction.setBidCount(source.getBidCount());
+        auction.setVersion(source.getVersion());
+        return auction;
+    }
+
+    private static void writeAuction(ByteBuffer buffer, Auction auction) {
+        writeString(buffer, auction.getId());
+        writeString(buffer, auction.getName());
+        writeString(buffer, auction.getSellerId());
+        writeString(buffer, auction.getSellerName());
+        buffer.putDouble(auction.getMinBid());
+        buffer.putDouble(auction.getCurrentBid());
+        writeString(buffer, auction.getCurrentBidderId());
+        writeString(buffer, auction.getCurrentBidderName());
+        buffer.put((byte) auction.getStatus().ordinal());
+        buffer.putLong(toMillis(auction.getEndTime()));
+        buffer.putInt(auction.getSoftCloseWindowSeconds());
+        buffer.putInt(auction.getSoftCloseExtensionSeconds());
+        buffer.putLong(toMillis(auction.getSoftCloseMaxEndTime()));
+        buffer.putInt(auction.getBidCount());
+        buffer.putLong(auction.getVersion());
+    }
+
+    private static Auction readAuction(ByteBuffer buffer) {
+        Auction auction = new Auction();
+        auction.setId(readString(buffer));
+        auction.setName(readString(buffer));
+        auction.setSellerId(readString(buffer));
+        auction.setSellerName(readString(buffer));
+        auction.setMinBid(buffer.getDouble());
+        auction.setCurrentBid(buffer.getDouble());
+        auction.setCurrentBidderId(readString(buffer));
+        auction.setCurrentBidderName(readString(buffer));
+        auction.setStatus(Auction.AuctionStatus.values()[buffer.get()]);
+        auction.setEndTime(fromMillis(buffer.getLong()));
+        auction.setSoftCloseWindowSeconds(buffer.getInt());
+        auction.setSoftCloseExtensionSeconds(buffer.getInt());
+        auction.setSoftCloseMaxEndTime(fromMillis(buffer.getLong()));
+        auction.setBidCount(buffer.getInt());
+        auction.setVersion(buffer.getLong());
+        return auction;
+    }
+
+    private static void writeBid(ByteBuffer buffer, Bid bid, Auction auction) {
+        writeString(buffer, bid.getId());
+        writeString(buffer, bid.getAuctionId());
+        writeString(buffer, bid.getBidderId());
+        writeString(buffer, bid.getBidderName());
+        buffer.putDouble(bid.getAmount());
+        buffer.putLong(toMillis(bid.getTimestamp()));
+        buffer.putInt(auction.getBidCount());
+        buffer.putLong(auction.getVersion());
+    }
+
+    private static Bid readBid(ByteBuffer buffer) {
+        Bid bid = new Bid();
+        bid.setId(readString(buffer));
+        bid.setAuctionId(readString(buffer));
+        bid.setBidderId(readString(buffer));
+        bid.setBidderName(readString(buffer));
+        bid.setAmount(buffer.getDouble());
+        bid.setTimestamp(fromMillis(buffer.getLong()));
+        return bid;
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? Long.MIN_VALUE : time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return millis == Long.MIN_VALUE ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    // A bid from the journal tail, with the soft-close end it moved its auction to
+    private static final class TailBid {
+
+        private final Bid bid;
+
+        private LocalDateTime extendedEnd;
+
+        TailBid(Bid bid) {
+            this.bid = bid;
+        }
+    }
+
+    // Journal record types; ordinals are part of the on-disk format, so only append
+    private enum Type {
+        CREATED,
+        BID_ACCEPTED,
+        CLOSED,
+        CANCELLED,
+        EXTENDED,
+        UPDATED
+    }
+}
@@ -0,0 +1,45 @@
+
+package com.art.auction.service;
+
+import com.art.auction.model.Auction;
+import com.art.auction.model.Bid;
+import lombok.Getter;
+
+@Getter
+public class BidResult {
+
+    private final Status status;
+
+    private final Bid bid;
+
+    private final Auction auction;
+
+    private BidResult(Status status, Bid bid, Auction auction) {
+        this.status = status;
+        this.bid = bid;
+        this.auction = auction;
+    }
+
+    public static BidResult accepted(Bid bid, Auction auction) {
+        return new BidResult(Status.ACCEPTED, bid, auction);
+    }
+
+    public static BidResult rejected(Status status) {
+        return new BidResult(status, null, null);
+    }
+
+    public boolean isAccepted() {
+        return status == Status.ACCEPTED;
+    }
+
+    // Outcome of a bid as decided by the auction's writer
+    public enum Status {
+        ACCEPTED,
+        AUCTION_NOT_FOUND,
+        AUCTION_NOT_ACTIVE,
+        AUCTION_ENDED,
+        OWN_AUCTION,
+        BID_TOO_LOW,
+        OUTBID
+    }
+}
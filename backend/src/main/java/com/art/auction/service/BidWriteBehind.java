@@ -0,0 +1,286 @@
+
+package com.art.auction.service;
+
+import com.art.auction.model.Bid;
+import com.art.auction.model.MaxBid;
+import com.art.auction.repository.AuctionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit stage between the bid engine and Mongo. Accepted bids are queued in the order the
+ * engine decided them and written in batches: one bulk insert into {@code bids} and one coalesced
+ * update per auction carrying only its last price and any soft-close extensions. A batch is flushed when it reaches
+ * {@code batch-size} bids or {@code flush-interval-ms} after its first bid, whichever comes first.
+ * Max bid saves and deletes from the engine ride in the same queue, so they keep the engine's order
+ * and never block a shard.
+ */
+@Service
+public class BidWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidWriteBehind.class);
+
+    @Autowired
+    private AuctionRepository auctionRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.bid-persistence.mode:ACK_AFTER_FLUSH}")
+    private DurabilityMode mode;
+
+    @Value("${app.bid-persistence.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.bid-persistence.flush-interval-ms:10}")
+    private long flushIntervalMs;
+
+    @Value("${app.bid-persistence.queue-capacity:100000}")
+    private int queueCapacity;
+
+    @Value("${app.journal.enabled:true}")
+    private boolean journalEnabled;
+
+    private BlockingQueue<Entry> queue;
+
+    private Thread flusher;
+
+    private volatile boolean running = true;
+
+    private DistributionSummary batchSizes;
+
+    private Timer flushLatency;
+
+    private Counter rejectedBids;
+
+    @PostConstruct
+    public void start() {
+        if (mode == DurabilityMode.ACK_AFTER_ENQUEUE && !journalEnabled) {
+            // The queue is only memory; without the journal an acknowledged bid would not survive a crash
+            logger.warn("ACK_AFTER_ENQUEUE needs the bid journal, which is disabled; acknowledging after flush instead");
+            mode = DurabilityMode.ACK_AFTER_FLUSH;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        batchSizes = DistributionSummary.builder("bids.flush.batch.size")
+                .description("Bids written per flush")
+                .register(meterRegistry);
+        flushLatency = Timer.builder("bids.flush.latency")
+                .description("Time to write one batch of bids")
+                .register(meterRegistry);
+        rejectedBids = Counter.builder("bids.flush.rejected")
+                .description("Bids the database refused at flush time")
+                .register(meterRegistry);
+        meterRegistry.gauge("bids.flush.queue.depth", queue, BlockingQueue::size);
+
+        flusher = new Thread(this::run, "bid-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Bid write-behind started in {} mode", mode);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // The flusher drains the queue before it exits
+        running = false;
+        flusher.join();
+    }
+
+    /**
+     * Queues an accepted bid, with the end time it moved the auction to if it landed in the soft-close
+     * window (null otherwise). The future completes once the bid's batch has been flushed, with
+     * {@code false} if the database refused it. Blocks the caller while the queue is full.
+     */
+    public CompletableFuture<Boolean> enqueue(Bid bid, LocalDateTime extendedEnd) {
+        Entry entry = new Entry(bid, extendedEnd, null, null);
+        put(entry);
+        return entry.written;
+    }
+
+    // Inserts or replaces the max bid with the batch it lands in
+    public void saveMaxBid(MaxBid maxBid) {
+        put(new Entry(null, null, maxBid, null));
+    }
+
+    public void deleteMaxBid(String maxBidId) {
+        put(new Entry(null, null, null, maxBidId));
+    }
+
+    // Completes once every bid queued before this call has been flushed
+    public CompletableFuture<Boolean> flush() {
+        Entry barrier = new Entry(null, null, null, null);
+        put(barrier);
+        return barrier.written;
+    }
+
+    public DurabilityMode getMode() {
+        return mode;
+    }
+
+    private void put(Entry entry) {
+        try {
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entry.written.completeExceptionally(e);
+        }
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Give concurrent bids one window to join this batch
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Entry next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutting down: drain whatever is left and flush it below
+                queue.drainTo(batch);
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Entry> batch) {
+        Map<String, List<Bid>> bidsByAuction = new LinkedHashMap<>();
+        Map<String, List<LocalDateTime>> extensionsByAuction = new HashMap<>();
+        // Last write per max bid id, null for a delete
+        Map<String, MaxBid> maxBids = new LinkedHashMap<>();
+        int bidCount = 0;
+        for (Entry entry : batch) {
+            if (entry.bid != null) {
+                bidCount++;
+                bidsByAuction.computeIfAbsent(entry.bid.getAuctionId(), id -> new ArrayList<>()).add(entry.bid);
+                if (entry.extendedEnd != null) {
+                    extensionsByAuction.computeIfAbsent(entry.bid.getAuctionId(), id -> new ArrayList<>()).add(entry.extendedEnd);
+                }
+            } else if (entry.maxBid != null) {
+                maxBids.put(entry.maxBid.getId(), entry.maxBid);
+            } else if (entry.deletedMaxBidId != null) {
+                maxBids.put(entry.deletedMaxBidId, null);
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            Set<String> rejected = bidsByAuction.isEmpty() ? Set.of() : auctionRepository.applyBids(bidsByAuction, extensionsByAuction);
+
+            List<Bid> accepted = new ArrayList<>();
+            bidsByAuction.forEach((auctionId, bids) -> {
+                if (!rejected.contains(auctionId)) {
+                    accepted.addAll(bids);
+                }
+            });
+            if (!accepted.isEmpty()) {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Bid.class).insert(accepted).execute();
+            }
+            if (!maxBids.isEmpty()) {
+                writeMaxBids(maxBids);
+            }
+
+            for (Entry entry : batch) {
+                boolean written = entry.bid == null || !rejected.contains(entry.bid.getAuctionId());
+                if (!written) {
+                    rejectedBids.increment();
+                }
+                entry.written.complete(written);
+            }
+            if (!rejected.isEmpty()) {
+                logger.warn("Database refused bids for auctions {}", rejected);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to flush {} bids: {}", batch.size(), e.getMessage());
+            batch.forEach(entry -> entry.written.completeExceptionally(e));
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(bidCount);
+        }
+    }
+
+    private void writeMaxBids(Map<String, MaxBid> maxBids) {
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MaxBid.class);
+        maxBids.forEach((id, maxBid) -> {
+            Query byId = new Query(Criteria.where("_id").is(id));
+            if (maxBid == null) {
+                operations.remove(byId);
+            } else {
+                operations.replaceOne(byId, maxBid, FindAndReplaceOptions.options().upsert());
+            }
+        });
+        operations.execute();
+    }
+
+    private static final class Entry {
+
+        // At most one of bid, maxBid and deletedMaxBidId is set; none for a flush barrier
+        private final Bid bid;
+
+        // Soft-close end the bid moved its auction to
+        private final LocalDateTime extendedEnd;
+
+        private final MaxBid maxBid;
+
+        private final String deletedMaxBidId;
+
+        private final CompletableFuture<Boolean> written = new CompletableFuture<>();
+
+        Entry(Bid bid, LocalDateTime extendedEnd, MaxBid maxBid, String deletedMaxBidId) {
+            this.bid = bid;
+            this.extendedEnd = extendedEnd;
+            this.maxBid = maxBid;
+            this.deletedMaxBidId = deletedMaxBidId;
+        }
+    }
+
+    // When a bid is acknowledged to the bidder, and announced to everyone else. ACK_AFTER_ENQUEUE relies
+    // on the journal to make the acknowledgement durable and falls back to ACK_AFTER_FLUSH without it.
+    public enum DurabilityMode {
+        ACK_AFTER_FLUSH,
+        ACK_AFTER_ENQUEUE
+    }
+}
@@ -0,0 +1,115 @@
+
+package com.art.auction.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends listing updates at most once per auction per tick. Each offer replaces whatever the auction
+ * already had waiting, so a burst of bids on one item goes out as a single message carrying the latest
+ * price, and only to the sessions that registered interest in that auction (on their
+ * {@code /user/queue/auctions}). The per-auction topics do not go through here and stay real-time.
+ */
+@Service
+public class ConflatingPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConflatingPublisher.class);
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private AuctionInterestRegistry interestRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.websocket.conflation-tick-ms:200}")
+    private long tickMs;
+
+    // Latest message per auction since the last tick
+    private final Map<String, SharedFrame> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService ticker;
+
+    private Counter offered;
+
+    private Counter conflated;
+
+    private Counter published;
+
+    private Counter deliveries;
+
+    @PostConstruct
+    public void start() {
+        offered = updates("offered");
+        conflated = updates("conflated");
+        published = updates("published");
+        deliveries = Counter.builder("websocket.interest.deliveries")
+                .description("Listing updates sent to interested sessions")
+                .register(meterRegistry);
+        meterRegistry.gauge("websocket.conflation.pending", pending, Map::size);
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "auction-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::flush, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdown();
+    }
+
+    // Queues the message for the next tick, replacing the auction's previous one if it has not gone out yet
+    public void offer(String auctionId, SharedFrame frame) {
+        offered.increment();
+        if (pending.put(auctionId, frame) != null) {
+            conflated.increment();
+        }
+    }
+
+    private void flush() {
+        try {
+            for (String auctionId : pending.keySet()) {
+                SharedFrame frame = pending.remove(auctionId);
+                if (frame == null) {
+                    continue;
+                }
+                published.increment();
+                for (String sessionId : interestRegistry.sessionsFor(auctionId)) {
+                    // A user name equal to the session id addresses that one session, no authenticated user needed
+                    messagingTemplate.send(messagingTemplate.getUserDestinationPrefix() + sessionId + "/queue/auctions",
+                            frame.messageForSession(sessionId));
+                    deliveries.increment();
+                }
+            }
+        } catch (RuntimeException e) {
+            // A failed tick must not cancel the schedule
+            logger.warn("Could not publish auction updates: {}", e.getMessage());
+        }
+    }
+
+    private Counter updates(String result) {
+        return Counter.builder("websocket.conflation.updates")
+                .description("Listing updates, by what became of them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,243 @@
+
+package com.art.auction.service;
+
+import com.art.auction.model.Auction;
+import com.art.auction.model.Bid;
+import com.art.auction.model.Message;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes bids, auctions and messages to a stream as NDJSON or CSV. Documents come from a Mongo
+ * cursor and go straight to the output, so memory use does not depend on how many match; when
+ * the client reads slowly the write blocks and the cursor stops fetching until it catches up.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    private static final List<Column<Bid>> BID_COLUMNS = List.of(
+            new Column<>("id", Bid::getId),
+            new Column<>("auctionId", Bid::getAuctionId),
+            new Column<>("bidderId", Bid::getBidderId),
+            new Column<>("bidderName", Bid::getBidderName),
+            new Column<>("amount", Bid::getAmount),
+            new Column<>("timestamp", Bid::getTimestamp));
+
+    private static final List<Column<Auction>> AUCTION_COLUMNS = List.of(
+            new Column<>("id", Auction::getId),
+            new Column<>("name", Auction::getName),
+            new Column<>("sellerId", Auction::getSellerId),
+            new Column<>("sellerName", Auction::getSellerName),
+            new Column<>("minBid", Auction::getMinBid),
+            new Column<>("currentBid", Auction::getCurrentBid),
+            new Column<>("currentBidderId", Auction::getCurrentBidderId),
+            new Column<>("bidCount", Auction::getBidCount),
+            new Column<>("status", Auction::getStatus),
+            new Column<>("endTime", Auction::getEndTime),
+            new Column<>("createdAt", Auction::getCreatedAt));
+
+    private static final List<Column<Message>> MESSAGE_COLUMNS = List.of(
+            new Column<>("id", Message::getId),
+            new Column<>("senderId", Message::getSenderId),
+            new Column<>("recipientId", Message::getRecipientId),
+            new Column<>("auctionId", Message::getAuctionId),
+            new Column<>("type", Message::getType),
+            new Column<>("read", Message::isRead),
+            new Column<>("content", Message::getContent),
+            new Column<>("timestamp", Message::getTimestamp));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.export.batch-size:1000}")
+    private int batchSize;
+
+    public void exportBids(String auctionId, LocalDateTime from, LocalDateTime to,
+                           ExportFormat format, OutputStream out) throws IOException {
+        Query query = between("timestamp", from, to);
+        if (auctionId != null) {
+            query.addCriteria(Criteria.where("auctionId").is(auctionId));
+        }
+        export("bids", query, "timestamp", Bid.class, BID_COLUMNS, format, out);
+    }
+
+    public void exportAuctions(Auction.AuctionStatus status, LocalDateTime from, LocalDateTime to,
+                               ExportFormat format, OutputStream out) throws IOException {
+        Query query = between("createdAt", from, to);
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+        // The embedded recent bids are in the bid export already
+        query.fields().exclude("recentBids");
+        export("auctions", query, "createdAt", Auction.class, AUCTION_COLUMNS, format, out);
+    }
+
+    public void exportMessages(Message.MessageType type, LocalDateTime from, LocalDateTime to,
+                               ExportFormat format, OutputStream out) throws IOException {
+        Query query = between("timestamp", from, to);
+        if (type != null) {
+            query.addCriteria(Criteria.where("type").is(type));
+        }
+        export("messages", query, "timestamp", Message.class, MESSAGE_COLUMNS, format, out);
+    }
+
+    private <T> void export(String name, Query query, String timeField, Class<T> type, List<Column<T>> columns,
+                            ExportFormat format, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        // Oldest first on the field the range is on, so one index both bounds and orders the scan
+        query.with(Sort.by(Sort.Direction.ASC, timeField, "_id")).cursorBatchSize(batchSize);
+
+        long rows = 0;
+        try (Stream<T> documents = mongoTemplate.stream(query, type)) {
+            Iterator<T> iterator = documents.iterator();
+            if (format == ExportFormat.CSV) {
+                rows = writeCsv(iterator, columns, out);
+            } else {
+                rows = writeNdjson(iterator, type, out);
+            }
+        } catch (IOException e) {
+            // Usually the client going away; the cursor is closed with the stream
+            logger.info("Export of {} stopped: {}", name, e.getMessage());
+            throw e;
+        }
+
+        Counter.builder("exports.rows")
+                .description("Documents written by admin exports")
+                .tag("type", name)
+                .register(meterRegistry)
+                .increment(rows);
+        logger.info("Exported {} {} as {} in {} ms", rows, name, format, System.currentTimeMillis() - start);
+    }
+
+    private <T> long writeNdjson(Iterator<T> documents, Class<T> type, OutputStream out) throws IOException {
+        // Flushing after every document would send one small packet per row
+        ObjectWriter writer = objectMapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines are split by the newline alone, not the default space between root values
+            generator.setRootValueSeparator(null);
+            while (documents.hasNext()) {
+                writer.writeValue(generator, documents.next());
+                generator.writeRaw('\n');
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private <T> long writeCsv(Iterator<T> documents, List<Column<T>> columns, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(columns.get(i).header);
+        }
+        writer.write("\r\n");
+
+        long rows = 0;
+        while (documents.hasNext()) {
+            T document = documents.next();
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = columns.get(i).value.apply(document);
+                if (value instanceof CharSequence) {
+                    writer.write(csvField(neutralise(value.toString())));
+                } else if (value != null) {
+                    writer.write(csvField(value.toString()));
+                }
+            }
+            writer.write("\r\n");
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    // Text a spreadsheet would read as a formula is prefixed with a quote so it stays text
+    private static String neutralise(String value) {
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            return "'" + value;
+        }
+        return value;
+    }
+
+    // Quotes a field when it holds a separator, a quote or a line break
+    private static String csvField(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return "\"" + value.replace("\"", "\"\"") + "\"";
+            }
+        }
+        return value;
+    }
+
+    private static Query between(String field, LocalDateTime from, LocalDateTime to) {
+        Query query = new Query();
+        if (from != null || to != null) {
+            Criteria criteria = Criteria.where(field);
+            if (from != null) {
+                criteria.gte(from);
+            }
+            if (to != null) {
+                criteria.lt(to);
+            }
+            query.addCriteria(criteria);
+        }
+        return query;
+    }
+
+    public enum ExportFormat {
+        NDJSON,
+        CSV
+    }
+
+    private static final class Column<T> {
+
+        private final String header;
+
+        private final Function<T, Object> value;
+
+        Column(String header, Function<T, Object> value) {
+            this.header = header;
+            this.value = value;
+        }
+    }
+}
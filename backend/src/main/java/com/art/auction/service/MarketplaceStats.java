@@ -0,0 +1,346 @@
+
+package com.art.auction.service;
+
+import com.art.auction.dto.MarketplaceStatsView;
+import com.art.auction.event.AuctionClosedEvent;
+import com.art.auction.event.AuctionCreatedEvent;
+import com.art.auction.event.BidAcceptedEvent;
+import com.art.auction.model.Auction;
+import com.art.auction.model.MarketplaceStatsCheckpoint;
+import com.art.auction.model.SellerStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Marketplace totals for the admin dashboard, kept in memory from bid and auction events instead of
+ * being aggregated from the collections on request. Bids and sales also land in hourly buckets on a
+ * ring, and each seller's sales feed an exact top-N list. Everything is checkpointed to Mongo on an
+ * interval and at shutdown and restored at startup; events after the last checkpoint are lost if the
+ * process dies, so the totals can undercount by up to one interval after a crash.
+ */
+@Service
+@DependsOn({"mongoIndexSetup", "auctionBidSummaryMigration"})
+public class MarketplaceStats {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketplaceStats.class);
+
+    private static final String CHECKPOINT_ID = "marketplace";
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final int DASHBOARD_HOURS = 24;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.stats.hours:48}")
+    private int hours;
+
+    @Value("${app.stats.top-sellers:10}")
+    private int topSellerLimit;
+
+    private final AtomicLong activeAuctions = new AtomicLong();
+
+    private final LongAdder totalBids = new LongAdder();
+
+    private final LongAdder auctionsCreated = new LongAdder();
+
+    private final LongAdder auctionsSold = new LongAdder();
+
+    private final LongAdder auctionsUnsold = new LongAdder();
+
+    private final LongAdder auctionsCancelled = new LongAdder();
+
+    private final DoubleAdder gmv = new DoubleAdder();
+
+    private Bucket[] buckets;
+
+    // Seller totals, the sellers changed since the last checkpoint, and the best sellers by GMV; guarded by this
+    private final Map<String, SellerStats> sellers = new HashMap<>();
+
+    private final Set<String> dirtySellers = new HashSet<>();
+
+    private final List<SellerStats> topSellers = new ArrayList<>();
+
+    @PostConstruct
+    public void start() {
+        buckets = new Bucket[Math.max(DASHBOARD_HOURS, hours)];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+        restore();
+    }
+
+    @PreDestroy
+    public void stop() {
+        checkpoint();
+    }
+
+    // Everything here is read from memory: a fixed number of hours and sellers, whatever the catalog size
+    public MarketplaceStatsView snapshot() {
+        MarketplaceStatsView view = new MarketplaceStatsView();
+        view.setActiveAuctions(activeAuctions.get());
+        view.setTotalBids(totalBids.sum());
+        view.setAuctionsCreated(auctionsCreated.sum());
+        view.setAuctionsSold(auctionsSold.sum());
+        view.setAuctionsUnsold(auctionsUnsold.sum());
+        view.setAuctionsCancelled(auctionsCancelled.sum());
+        view.setGmv(gmv.sum());
+
+        long currentHour = System.currentTimeMillis() / HOUR_MILLIS;
+        List<MarketplaceStatsView.Hour> hourly = new ArrayList<>(DASHBOARD_HOURS);
+        long bids24 = 0;
+        double gmv24 = 0;
+        for (long hour = currentHour - DASHBOARD_HOURS + 1; hour <= currentHour; hour++) {
+            Bucket bucket = buckets[slot(hour)];
+            MarketplaceStatsView.Hour entry = new MarketplaceStatsView.Hour();
+            entry.setStart(LocalDateTime.ofInstant(Instant.ofEpochMilli(hour * HOUR_MILLIS), ZoneId.systemDefault()));
+            if (bucket.hour == hour) {
+                entry.setBids(bucket.bids.sum());
+                entry.setGmv(bucket.gmv.sum());
+            }
+            bids24 += entry.getBids();
+            gmv24 += entry.getGmv();
+            hourly.add(entry);
+        }
+        view.setHourly(hourly);
+        view.setBidsLastHour(hourly.get(hourly.size() - 1).getBids());
+        view.setBidsLast24Hours(bids24);
+        view.setGmvLast24Hours(gmv24);
+
+        List<MarketplaceStatsView.Seller> top = new ArrayList<>(topSellerLimit);
+        synchronized (this) {
+            for (SellerStats stats : topSellers) {
+                MarketplaceStatsView.Seller seller = new MarketplaceStatsView.Seller();
+                seller.setSellerId(stats.getId());
+                seller.setSellerName(stats.getSellerName());
+                seller.setAuctionsSold(stats.getAuctionsSold());
+                seller.setGmv(stats.getGmv());
+                top.add(seller);
+            }
+        }
+        view.setTopSellers(top);
+        return view;
+    }
+
+    @EventListener
+    public void onAuctionCreated(AuctionCreatedEvent event) {
+        auctionsCreated.increment();
+        activeAuctions.incrementAndGet();
+    }
+
+    // Runs on the bid engine shard, so it only bumps counters
+    @EventListener
+    public void onBidAccepted(BidAcceptedEvent event) {
+        totalBids.increment();
+        Bucket bucket = bucket(System.currentTimeMillis() / HOUR_MILLIS);
+        if (bucket != null) {
+            bucket.bids.increment();
+        }
+    }
+
+    @EventListener
+    public void onAuctionClosed(AuctionClosedEvent event) {
+        Auction auction = event.getAuction();
+        activeAuctions.decrementAndGet();
+        if (auction.getStatus() == Auction.AuctionStatus.CANCELLED) {
+            auctionsCancelled.increment();
+            return;
+        }
+        if (auction.getCurrentBidderId() == null) {
+            auctionsUnsold.increment();
+            return;
+        }
+
+        double price = auction.getCurrentBid();
+        auctionsSold.increment();
+        gmv.add(price);
+        Bucket bucket = bucket(System.currentTimeMillis() / HOUR_MILLIS);
+        if (bucket != null) {
+            bucket.gmv.add(price);
+        }
+
+        synchronized (this) {
+            SellerStats seller = sellers.computeIfAbsent(auction.getSellerId(), id -> {
+                SellerStats stats = new SellerStats();
+                stats.setId(id);
+                return stats;
+            });
+            seller.setSellerName(auction.getSellerName());
+            seller.setAuctionsSold(seller.getAuctionsSold() + 1);
+            seller.setGmv(seller.getGmv() + price);
+            dirtySellers.add(seller.getId());
+            rank(seller);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.stats.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        if (buckets == null) {
+            return;
+        }
+        MarketplaceStatsCheckpoint checkpoint = new MarketplaceStatsCheckpoint();
+        checkpoint.setId(CHECKPOINT_ID);
+        checkpoint.setTotalBids(totalBids.sum());
+        checkpoint.setAuctionsCreated(auctionsCreated.sum());
+        checkpoint.setAuctionsSold(auctionsSold.sum());
+        checkpoint.setAuctionsUnsold(auctionsUnsold.sum());
+        checkpoint.setAuctionsCancelled(auctionsCancelled.sum());
+        checkpoint.setGmv(gmv.sum());
+        for (Bucket bucket : buckets) {
+            if (bucket.hour >= 0) {
+                MarketplaceStatsCheckpoint.Hour hour = new MarketplaceStatsCheckpoint.Hour();
+                hour.setHour(bucket.hour);
+                hour.setBids(bucket.bids.sum());
+                hour.setGmv(bucket.gmv.sum());
+                checkpoint.getHours().add(hour);
+            }
+        }
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+
+        // Only sellers that sold since the last checkpoint are written
+        List<SellerStats> changed = new ArrayList<>();
+        synchronized (this) {
+            for (String sellerId : dirtySellers) {
+                SellerStats seller = sellers.get(sellerId);
+                SellerStats copy = new SellerStats();
+                copy.setId(seller.getId());
+                copy.setSellerName(seller.getSellerName());
+                copy.setAuctionsSold(seller.getAuctionsSold());
+                copy.setGmv(seller.getGmv());
+                changed.add(copy);
+            }
+            dirtySellers.clear();
+        }
+
+        try {
+            mongoTemplate.save(checkpoint);
+            if (!changed.isEmpty()) {
+                BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SellerStats.class);
+                for (SellerStats seller : changed) {
+                    operations.upsert(new Query(Criteria.where("_id").is(seller.getId())), new Update()
+                            .set("sellerName", seller.getSellerName())
+                            .set("auctionsSold", seller.getAuctionsSold())
+                            .set("gmv", seller.getGmv()));
+                }
+                operations.execute();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not checkpoint marketplace statistics: {}", e.getMessage());
+            synchronized (this) {
+                changed.forEach(seller -> dirtySellers.add(seller.getId()));
+            }
+        }
+    }
+
+    private void restore() {
+        MarketplaceStatsCheckpoint checkpoint = mongoTemplate.findById(CHECKPOINT_ID, MarketplaceStatsCheckpoint.class);
+        if (checkpoint != null) {
+            totalBids.add(checkpoint.getTotalBids());
+            auctionsCreated.add(checkpoint.getAuctionsCreated());
+            auctionsSold.add(checkpoint.getAuctionsSold());
+            auctionsUnsold.add(checkpoint.getAuctionsUnsold());
+            auctionsCancelled.add(checkpoint.getAuctionsCancelled());
+            gmv.add(checkpoint.getGmv());
+            long currentHour = System.currentTimeMillis() / HOUR_MILLIS;
+            for (MarketplaceStatsCheckpoint.Hour hour : checkpoint.getHours()) {
+                if (hour.getHour() > currentHour - buckets.length && hour.getHour() <= currentHour) {
+                    Bucket bucket = buckets[slot(hour.getHour())];
+                    bucket.hour = hour.getHour();
+                    bucket.bids.add(hour.getBids());
+                    bucket.gmv.add(hour.getGmv());
+                }
+            }
+        }
+
+        // Streamed off a cursor, so the result set is never held as one list alongside the map
+        synchronized (this) {
+            try (Stream<SellerStats> stored = mongoTemplate.stream(new Query(), SellerStats.class)) {
+                stored.forEach(seller -> {
+                    sellers.put(seller.getId(), seller);
+                    rank(seller);
+                });
+            }
+        }
+
+        // An indexed count rather than a checkpointed figure, so it is exact from the start
+        activeAuctions.set(mongoTemplate.count(
+                new Query(Criteria.where("status").is(Auction.AuctionStatus.ACTIVE)), Auction.class));
+        logger.info("Restored marketplace statistics: {} active auctions, {} sellers", activeAuctions.get(), sellers.size());
+    }
+
+    // Seller GMV only grows, so a seller can only enter the top list by passing its lowest entry. Caller holds this.
+    private void rank(SellerStats seller) {
+        if (!topSellers.contains(seller)) {
+            if (topSellers.size() >= topSellerLimit) {
+                SellerStats lowest = topSellers.get(topSellers.size() - 1);
+                if (seller.getGmv() <= lowest.getGmv()) {
+                    return;
+                }
+                topSellers.remove(topSellers.size() - 1);
+            }
+            topSellers.add(seller);
+        }
+        topSellers.sort(Comparator.comparingDouble(SellerStats::getGmv).reversed());
+    }
+
+    // The bucket for the given hour, cleared first if it still holds an hour that has left the ring
+    private Bucket bucket(long hour) {
+        Bucket bucket = buckets[slot(hour)];
+        if (bucket.hour != hour) {
+            synchronized (bucket) {
+                if (bucket.hour > hour) {
+                    return null;
+                }
+                if (bucket.hour != hour) {
+                    bucket.bids.reset();
+                    bucket.gmv.reset();
+                    bucket.hour = hour;
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private int slot(long hour) {
+        return (int) (hour % buckets.length);
+    }
+
+    private static final class Bucket {
+
+        private volatile long hour = -1;
+
+        private final LongAdder bids = new LongAdder();
+
+        private final DoubleAdder gmv = new DoubleAdder();
+    }
+}
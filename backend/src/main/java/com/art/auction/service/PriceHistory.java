@@ -0,0 +1,228 @@
+
+package com.art.auction.service;
+
+import com.art.auction.dto.PriceHistoryView;
+import com.art.auction.event.BidAcceptedEvent;
+import com.art.auction.event.BidRefusedEvent;
+import com.art.auction.model.Auction;
+import com.art.auction.model.Bid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-auction price series for the auction page chart, held as primitive arrays of (time, price).
+ * An auction's series is read from the bids collection the first time it is asked for and is then
+ * extended from bid events, so later requests never touch Mongo. Accepted bids on an auction only
+ * ever go up, which is what lets a load and the events that raced it be merged by price alone, without
+ * waiting on the write-behind: a bid announced before the series existed is already in Mongo unless
+ * the engine acknowledges on enqueue, and then at worst it is missing from the line.
+ */
+@Service
+public class PriceHistory {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.price-history.max-auctions:10000}")
+    private int maxAuctions;
+
+    @Value("${app.price-history.max-points:1000}")
+    private int maxPoints;
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the auction's price history reduced to at most {@code points} points, keeping the shape
+     * of the chart; null if the auction does not exist.
+     */
+    public PriceHistoryView get(String auctionId, int points) {
+        Series history = series.computeIfAbsent(auctionId, id -> new Series());
+        history.lastAccess = System.nanoTime();
+        if (!history.loaded && !load(auctionId, history)) {
+            return null;
+        }
+
+        long[] times;
+        double[] prices;
+        int size;
+        synchronized (history) {
+            size = history.size;
+            times = Arrays.copyOf(history.times, size);
+            prices = Arrays.copyOf(history.prices, size);
+        }
+        int target = Math.max(2, Math.min(points, maxPoints));
+        return size <= target
+                ? new PriceHistoryView(auctionId, size, times, prices)
+                : downsample(auctionId, times, prices, target);
+    }
+
+    // Runs on the bid engine shard; only auctions whose history has been asked for are tracked
+    @EventListener
+    public void onBidAccepted(BidAcceptedEvent event) {
+        Series history = series.get(event.getBid().getAuctionId());
+        if (history != null) {
+            Bid bid = event.getBid();
+            synchronized (history) {
+                history.append(epochMillis(bid), bid.getAmount());
+            }
+        }
+    }
+
+    // A refused bid may already be in the series; the next request reads the auction again from Mongo
+    @EventListener
+    public void onBidRefused(BidRefusedEvent event) {
+        series.remove(event.getBid().getAuctionId());
+    }
+
+    // Reads the bids already in Mongo and puts them ahead of any that arrived as events meanwhile
+    private boolean load(String auctionId, Series history) {
+        synchronized (history.loadLock) {
+            if (history.loaded) {
+                return true;
+            }
+            // Bids announced from here on arrive as events; a later price supersedes what is read
+            Query query = new Query(Criteria.where("auctionId").is(auctionId))
+                    .with(Sort.by(Sort.Direction.ASC, "timestamp", "_id"));
+            query.fields().include("timestamp", "amount");
+            List<Bid> bids = mongoTemplate.find(query, Bid.class);
+            if (bids.isEmpty() && !mongoTemplate.exists(new Query(Criteria.where("_id").is(auctionId)), Auction.class)) {
+                series.remove(auctionId, history);
+                return false;
+            }
+
+            synchronized (history) {
+                Series merged = new Series();
+                for (Bid bid : bids) {
+                    merged.append(epochMillis(bid), bid.getAmount());
+                }
+                double lastLoaded = merged.size == 0 ? Double.NEGATIVE_INFINITY : merged.prices[merged.size - 1];
+                for (int i = 0; i < history.size; i++) {
+                    if (history.prices[i] > lastLoaded) {
+                        merged.append(history.times[i], history.prices[i]);
+                    }
+                }
+                history.times = merged.times;
+                history.prices = merged.prices;
+                history.size = merged.size;
+                history.loaded = true;
+            }
+        }
+        evictIfFull();
+        return true;
+    }
+
+    // Drops the series read least recently once more auctions are tracked than allowed
+    private void evictIfFull() {
+        int excess = series.size() - maxAuctions;
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<String, Series>> entries = new ArrayList<>(series.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+        for (int i = 0; i < excess && i < entries.size(); i++) {
+            series.remove(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+    }
+
+    /**
+     * Largest-triangle-three-buckets: keeps the first and last points and, from each bucket in between,
+     * the point forming the largest triangle with the point kept before it and the next bucket's average.
+     */
+    private static PriceHistoryView downsample(String auctionId, long[] times, double[] prices, int target) {
+        int size = times.length;
+        long[] sampledTimes = new long[target];
+        double[] sampledPrices = new double[target];
+        sampledTimes[0] = times[0];
+        sampledPrices[0] = prices[0];
+
+        double bucketSize = (double) (size - 2) / (target - 2);
+        int kept = 0;
+        for (int bucket = 0; bucket < target - 2; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+
+            int nextStart = end;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, size);
+            if (nextEnd <= nextStart) {
+                // The last bucket's neighbour is the final point
+                nextStart = size - 1;
+                nextEnd = size;
+            }
+            double averageTime = 0;
+            double averagePrice = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageTime += times[i];
+                averagePrice += prices[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            averageTime /= nextCount;
+            averagePrice /= nextCount;
+
+            double keptTime = times[kept];
+            double keptPrice = prices[kept];
+            double largest = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((keptTime - averageTime) * (prices[i] - keptPrice)
+                        - (keptTime - times[i]) * (averagePrice - keptPrice));
+                if (area > largest) {
+                    largest = area;
+                    chosen = i;
+                }
+            }
+            sampledTimes[bucket + 1] = times[chosen];
+            sampledPrices[bucket + 1] = prices[chosen];
+            kept = chosen;
+        }
+
+        sampledTimes[target - 1] = times[size - 1];
+        sampledPrices[target - 1] = prices[size - 1];
+        return new PriceHistoryView(auctionId, size, sampledTimes, sampledPrices);
+    }
+
+    private static long epochMillis(Bid bid) {
+        return bid.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static final class Series {
+
+        private final Object loadLock = new Object();
+
+        // Guarded by this
+        private long[] times = new long[INITIAL_CAPACITY];
+
+        private double[] prices = new double[INITIAL_CAPACITY];
+
+        private int size;
+
+        private volatile boolean loaded;
+
+        private volatile long lastAccess = System.nanoTime();
+
+        void append(long time, double price) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+            }
+            times[size] = time;
+            prices[size] = price;
+            size++;
+        }
+    }
+}
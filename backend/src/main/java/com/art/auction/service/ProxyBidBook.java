@@ -0,0 +1,120 @@
+
+package com.art.auction.service;
+
+import com.art.auction.model.Auction;
+import com.art.auction.model.MaxBid;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Standing maximum bids for one auction, highest first (earlier wins ties). Owned by the
+ * auction's bid engine shard, so it is never touched by more than one thread.
+ */
+class ProxyBidBook {
+
+    private static final Comparator<MaxBid> ORDER = Comparator
+            .comparingDouble(MaxBid::getMaxAmount).reversed()
+            .thenComparing(MaxBid::getCreatedAt)
+            .thenComparing(MaxBid::getBidderId);
+
+    private final TreeSet<MaxBid> ordered = new TreeSet<>(ORDER);
+
+    private final Map<String, MaxBid> byBidder = new HashMap<>();
+
+    // Dropped by resolve and not yet handed to the caller for deletion
+    private final List<MaxBid> exhausted = new ArrayList<>();
+
+    MaxBid get(String bidderId) {
+        return byBidder.get(bidderId);
+    }
+
+    void put(MaxBid maxBid) {
+        remove(maxBid.getBidderId());
+        ordered.add(maxBid);
+        byBidder.put(maxBid.getBidderId(), maxBid);
+    }
+
+    MaxBid remove(String bidderId) {
+        MaxBid existing = byBidder.remove(bidderId);
+        if (existing != null) {
+            ordered.remove(existing);
+        }
+        return existing;
+    }
+
+    boolean isEmpty() {
+        return ordered.isEmpty();
+    }
+
+    // Max bids resolve has dropped since the last call; they can no longer win and may be deleted
+    List<MaxBid> takeExhausted() {
+        if (exhausted.isEmpty()) {
+            return List.of();
+        }
+        List<MaxBid> taken = new ArrayList<>(exhausted);
+        exhausted.clear();
+        return taken;
+    }
+
+    /**
+     * Works out where competing maximum bids push the auction after its standing bid changed.
+     * Returns the max bid that should now lead and the price it leads at, or null if the standing
+     * bid holds. {@code standingIsNewest} is true when the standing bid was just placed by hand,
+     * in which case a max bid equal to it wins because it was placed earlier.
+     */
+    Resolution resolve(Auction auction, double increment, boolean standingIsNewest) {
+        double price = auction.getCurrentBid();
+        String leader = auction.getCurrentBidderId();
+
+        // Exhausted max bids sit at the tail; drop them so each is only ever looked at once
+        Iterator<MaxBid> lowest = ordered.descendingIterator();
+        while (lowest.hasNext()) {
+            MaxBid candidate = lowest.next();
+            boolean canWin = candidate.getMaxAmount() > price
+                    || (standingIsNewest && candidate.getMaxAmount() == price && !candidate.getBidderId().equals(leader));
+            if (canWin) {
+                break;
+            }
+            lowest.remove();
+            byBidder.remove(candidate.getBidderId());
+            exhausted.add(candidate);
+        }
+
+        if (ordered.isEmpty()) {
+            return null;
+        }
+
+        MaxBid top = ordered.first();
+        MaxBid second = ordered.higher(top);
+
+        if (top.getBidderId().equals(leader)) {
+            // The leader only moves up if another max bid is still pushing
+            if (second == null) {
+                return null;
+            }
+            double newPrice = Math.min(top.getMaxAmount(), second.getMaxAmount() + increment);
+            return newPrice > price ? new Resolution(top, newPrice) : null;
+        }
+
+        double floor = second == null ? price : Math.max(price, second.getMaxAmount());
+        return new Resolution(top, Math.min(top.getMaxAmount(), floor + increment));
+    }
+
+    static final class Resolution {
+
+        final MaxBid leader;
+
+        final double price;
+
+        Resolution(MaxBid leader, double price) {
+            this.leader = leader;
+            this.price = price;
+        }
+    }
+}
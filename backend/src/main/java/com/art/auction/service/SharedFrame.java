@@ -0,0 +1,53 @@
+
+package com.art.auction.service;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * A WebSocket payload serialized to JSON once. Every message built from it carries the same byte
+ * array, so sending it to several destinations or sessions costs new headers, not another conversion.
+ * The bytes are never written after construction. A droppable frame is one a later frame supersedes,
+ * such as a price update, which a slow session may skip.
+ */
+public final class SharedFrame {
+
+    // Message header marking frames a slow session may skip; not sent to clients
+    public static final String DROPPABLE_HEADER = "droppable";
+
+    private final byte[] body;
+
+    private final boolean droppable;
+
+    SharedFrame(byte[] body, boolean droppable) {
+        this.body = body;
+        this.droppable = droppable;
+    }
+
+    // Left mutable so the messaging template can fill in the destination without copying the headers again
+    Message<byte[]> message() {
+        return MessageBuilder.createMessage(body, headers(null, droppable));
+    }
+
+    // Addressed to one session through its user destination
+    Message<byte[]> messageForSession(String sessionId) {
+        return MessageBuilder.createMessage(body, headers(sessionId, droppable));
+    }
+
+    private static MessageHeaders headers(String sessionId, boolean droppable) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (sessionId != null) {
+            headers.setSessionId(sessionId);
+        }
+        if (droppable) {
+            headers.setHeader(DROPPABLE_HEADER, Boolean.TRUE);
+        }
+        headers.setLeaveMutable(true);
+        return headers.getMessageHeaders();
+    }
+}
@@ -0,0 +1,223 @@
+
+package com.art.auction.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one slow WebSocket client from holding memory and delaying everyone else. Each session's
+ * outbound depth is the STOMP MESSAGE frames handed to the outbound channel that its socket has not
+ * finished writing yet; heartbeats and other protocol frames are left out on both sides. Past {@code queue-limit}, frames marked droppable (price updates a later one
+ * supersedes) are skipped while terminal events such as an auction ending still go out; a session
+ * that stays past the limit for {@code disconnect-after-ms} is closed. The transport's own send
+ * buffer and send time limits stay in place behind this as the hard stop.
+ */
+@Service
+public class SlowConsumerPolicy implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowConsumerPolicy.class);
+
+    private static final byte[] MESSAGE_FRAME = "MESSAGE\n".getBytes(StandardCharsets.US_ASCII);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.websocket.slow-consumer.queue-limit:64}")
+    private int queueLimit;
+
+    @Value("${app.websocket.slow-consumer.disconnect-after-ms:30000}")
+    private long disconnectAfterMs;
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+    private DistributionSummary queueDepth;
+
+    private DistributionSummary dropsPerSession;
+
+    private Counter dropped;
+
+    private Counter disconnected;
+
+    @PostConstruct
+    public void start() {
+        queueDepth = DistributionSummary.builder("websocket.session.queue.depth")
+                .description("Outbound messages waiting for a session when another is queued")
+                .register(meterRegistry);
+        dropsPerSession = DistributionSummary.builder("websocket.session.drops")
+                .description("Price updates skipped over a session's lifetime, recorded when it closes")
+                .register(meterRegistry);
+        dropped = Counter.builder("websocket.session.dropped")
+                .description("Price updates skipped for sessions over their queue limit")
+                .register(meterRegistry);
+        disconnected = Counter.builder("websocket.session.disconnected")
+                .description("Sessions closed for staying over their queue limit")
+                .tag("reason", "slow-consumer")
+                .register(meterRegistry);
+        meterRegistry.gauge("websocket.session.slow", sessions,
+                all -> all.values().stream().filter(state -> state.slowSince.get() != 0).count());
+    }
+
+    // Wraps each connection so writes that finish can be counted off its depth
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SessionState state = new SessionState(session);
+                sessions.put(session.getId(), state);
+                super.afterConnectionEstablished(new CountingSession(session, state));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                SessionState state = sessions.remove(session.getId());
+                if (state != null) {
+                    dropsPerSession.record(state.dropped.get());
+                    if (state.dropped.get() > 0) {
+                        logger.info("WebSocket session {} closed ({}) after skipping {} price updates",
+                                session.getId(), closeStatus, state.dropped.get());
+                    }
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    // Runs on the client outbound channel for every message addressed to a session
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        SessionState state = sessionId == null ? null : sessions.get(sessionId);
+        if (state == null || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return message;
+        }
+
+        int depth = state.depth.get();
+        if (depth < queueLimit) {
+            state.slowSince.set(0);
+        } else {
+            long now = System.currentTimeMillis();
+            state.slowSince.compareAndSet(0, now);
+            if (now - state.slowSince.get() >= disconnectAfterMs) {
+                // Let the frame through: writing it is what closes the session
+                disconnect(state, depth);
+                return message;
+            }
+            if (Boolean.TRUE.equals(message.getHeaders().get(SharedFrame.DROPPABLE_HEADER))) {
+                state.dropped.incrementAndGet();
+                dropped.increment();
+                return null;
+            }
+        }
+
+        queueDepth.record(state.depth.incrementAndGet());
+        return message;
+    }
+
+    // Closed from below on the next write, so the transport's concurrent decorator closes too
+    private void disconnect(SessionState state, int depth) {
+        if (!state.closing.compareAndSet(false, true)) {
+            return;
+        }
+        disconnected.increment();
+        logger.warn("Closing slow WebSocket session {}: {} messages queued for over {} ms, {} price updates skipped",
+                state.session.getId(), depth, disconnectAfterMs, state.dropped.get());
+    }
+
+    private static boolean isMessageFrame(WebSocketMessage<?> message) {
+        if (message instanceof TextMessage text) {
+            byte[] bytes = text.asBytes();
+            return bytes.length >= MESSAGE_FRAME.length
+                    && Arrays.equals(bytes, 0, MESSAGE_FRAME.length, MESSAGE_FRAME, 0, MESSAGE_FRAME.length);
+        }
+        if (message instanceof BinaryMessage binary) {
+            ByteBuffer bytes = binary.getPayload();
+            if (bytes.remaining() < MESSAGE_FRAME.length) {
+                return false;
+            }
+            for (int i = 0; i < MESSAGE_FRAME.length; i++) {
+                if (bytes.get(bytes.position() + i) != MESSAGE_FRAME[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static final class SessionState {
+
+        private final WebSocketSession session;
+
+        private final AtomicInteger depth = new AtomicInteger();
+
+        private final AtomicInteger dropped = new AtomicInteger();
+
+        // When the depth last went over the limit, 0 while under it
+        private final AtomicLong slowSince = new AtomicLong();
+
+        private final AtomicBoolean closing = new AtomicBoolean();
+
+        SessionState(WebSocketSession session) {
+            this.session = session;
+        }
+    }
+
+    // Sits under the transport's buffering decorator, so a send returning means the socket took the frame.
+    // Sends run one at a time under that decorator's lock, and an exception here reaches the STOMP handler,
+    // which closes the session through the decorator.
+    private static final class CountingSession extends WebSocketSessionDecorator {
+
+        private final SessionState state;
+
+        CountingSession(WebSocketSession session, SessionState state) {
+            super(session);
+            this.state = state;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            if (state.closing.get()) {
+                throw new SessionLimitExceededException("Slow consumer", CloseStatus.SESSION_NOT_RELIABLE);
+            }
+            try {
+                super.sendMessage(message);
+            } finally {
+                if (isMessageFrame(message)) {
+                    state.depth.decrementAndGet();
+                }
+            }
+        }
+    }
+}
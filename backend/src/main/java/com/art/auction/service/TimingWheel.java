@@ -0,0 +1,194 @@
+
+package com.art.auction.service;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Level 0 has {@code wheelSize} buckets of {@code tickMs}; each higher
+ * level's tick spans a whole lower wheel, and higher levels are created only when a deadline falls
+ * beyond the existing ones. Adding or cancelling a timer is O(1), plus one {@link DelayQueue} insert
+ * when it lands in an empty bucket. Only buckets that hold timers are on the queue, so the driving
+ * thread sleeps until the next bucket is due instead of ticking through empty slots. When a
+ * higher-level bucket comes due, its timers drop into lower levels, so each one still fires within
+ * one tick of its deadline.
+ */
+class TimingWheel {
+
+    private final Level root;
+
+    private final DelayQueue<Bucket> dueBuckets = new DelayQueue<>();
+
+    private final Consumer<Timer> onExpiry;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs, Consumer<Timer> onExpiry) {
+        this.root = new Level(tickMs, wheelSize, startMs);
+        this.onExpiry = onExpiry;
+    }
+
+    // Schedules the timer, or fires it straight away if its deadline is already within the current tick
+    synchronized void add(Timer timer) {
+        if (!root.add(timer)) {
+            onExpiry.accept(timer);
+        }
+    }
+
+    synchronized void cancel(Timer timer) {
+        timer.cancelled = true;
+        if (timer.bucket != null) {
+            timer.bucket.remove(timer);
+        }
+    }
+
+    /**
+     * Waits up to {@code timeoutMs} for the next due bucket, advances the clock to it and fires or
+     * cascades its timers. Called in a loop by the owning thread.
+     */
+    void advance(long timeoutMs) throws InterruptedException {
+        Bucket bucket = dueBuckets.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (bucket == null) {
+            return;
+        }
+        synchronized (this) {
+            while (bucket != null) {
+                root.advanceClock(bucket.expiration);
+                bucket.flush(this::add);
+                bucket = dueBuckets.poll();
+            }
+        }
+    }
+
+    private final class Level {
+
+        private final long tickMs;
+
+        private final int wheelSize;
+
+        private final long interval;
+
+        private final Bucket[] buckets;
+
+        private long currentTime;
+
+        private Level overflow;
+
+        Level(long tickMs, int wheelSize, long startMs) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket();
+            }
+            this.currentTime = startMs - (startMs % tickMs);
+        }
+
+        boolean add(Timer timer) {
+            long deadline = timer.deadlineMs;
+            if (timer.cancelled || deadline < currentTime + tickMs) {
+                return false;
+            }
+            if (deadline < currentTime + interval) {
+                long virtualId = deadline / tickMs;
+                Bucket bucket = buckets[(int) (virtualId % wheelSize)];
+                bucket.add(timer);
+                // A bucket is queued once per rotation, when it gets its first timer
+                if (bucket.setExpiration(virtualId * tickMs)) {
+                    dueBuckets.offer(bucket);
+                }
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Level(interval, wheelSize, currentTime);
+            }
+            return overflow.add(timer);
+        }
+
+        void advanceClock(long timeMs) {
+            if (timeMs >= currentTime + tickMs) {
+                currentTime = timeMs - (timeMs % tickMs);
+                if (overflow != null) {
+                    overflow.advanceClock(currentTime);
+                }
+            }
+        }
+    }
+
+    // Doubly linked list of timers due in the same tick; only touched under the wheel's lock
+    private static final class Bucket implements Delayed {
+
+        private final Timer head = new Timer(null, 0);
+
+        private long expiration = -1;
+
+        Bucket() {
+            head.next = head;
+            head.previous = head;
+        }
+
+        void add(Timer timer) {
+            timer.bucket = this;
+            timer.previous = head.previous;
+            timer.next = head;
+            head.previous.next = timer;
+            head.previous = timer;
+        }
+
+        void remove(Timer timer) {
+            timer.previous.next = timer.next;
+            timer.next.previous = timer.previous;
+            timer.next = null;
+            timer.previous = null;
+            timer.bucket = null;
+        }
+
+        boolean setExpiration(long expirationMs) {
+            boolean changed = expiration != expirationMs;
+            expiration = expirationMs;
+            return changed;
+        }
+
+        void flush(Consumer<Timer> reinsert) {
+            expiration = -1;
+            Timer timer = head.next;
+            while (timer != head) {
+                Timer next = timer.next;
+                remove(timer);
+                reinsert.accept(timer);
+                timer = next;
+            }
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiration - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiration, ((Bucket) other).expiration);
+        }
+    }
+
+    static final class Timer {
+
+        final String key;
+
+        final long deadlineMs;
+
+        private boolean cancelled;
+
+        private Bucket bucket;
+
+        private Timer next;
+
+        private Timer previous;
+
+        Timer(String key, long deadlineMs) {
+            this.key = key;
+            this.deadlineMs = deadlineMs;
+        }
+    }
+}
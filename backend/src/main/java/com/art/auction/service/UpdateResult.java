@@ -0,0 +1,35 @@
+
+package com.art.auction.service;
+
+import lombok.Getter;
+
+@Getter
+public class UpdateResult {
+
+    private final Status status;
+
+    // The auction's version after the update, or its current version when the update was refused
+    private final long version;
+
+    private UpdateResult(Status status, long version) {
+        this.status = status;
+        this.version = version;
+    }
+
+    public static UpdateResult updated(long version) {
+        return new UpdateResult(Status.UPDATED, version);
+    }
+
+    public static UpdateResult refused(Status status, long version) {
+        return new UpdateResult(status, version);
+    }
+
+    // Outcome of an auction edit as decided by the auction's writer
+    public enum Status {
+        UPDATED,
+        AUCTION_NOT_FOUND,
+        AUCTION_NOT_ACTIVE,
+        NOT_OWNER,
+        VERSION_MISMATCH
+    }
+}
@@ -1,48 +1,54 @@
-
 package com.art.auction.service;
 
+import com.art.auction.dto.AuctionEndedUpdate;
+import com.art.auction.dto.AuctionExtendedUpdate;
+import com.art.auction.dto.BidUpdate;
 import com.art.auction.model.Auction;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
-
 @Service
 public class WebSocketService {
 
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
+    
+    @Autowired
+    private ConflatingPublisher conflatingPublisher;
+    
+    @Autowired
+    private AuctionEventLog eventLog;
 
     public void notifyBidPlaced(Auction auction) {
-        Map<String, Object> bidInfo = new HashMap<>();
-        bidInfo.put("auctionId", auction.getId());
-        bidInfo.put("auctionName", auction.getName());
-        bidInfo.put("currentBid", auction.getCurrentBid());
-        bidInfo.put("bidderName", auction.getCurrentBidderName());
+        // The next bid supersedes this one, so a slow session may skip it
+        SharedFrame frame = eventLog.append(auction.getId(), true, seq -> new BidUpdate(eventLog.getEpoch(), seq,
+                auction.getId(), auction.getName(), auction.getCurrentBid(), auction.getCurrentBidderName()));
         
         // Send to auction-specific topic
-        messagingTemplate.convertAndSend("/topic/auction/" + auction.getId(), bidInfo);
+        send("/topic/auction/" + auction.getId(), frame);
         
-        // Send to all active auctions topic
-        messagingTemplate.convertAndSend("/topic/auctions", bidInfo);
+        // Listings only need the latest price, sent once per tick to the sessions showing this auction
+        conflatingPublisher.offer(auction.getId(), frame);
+    }
+
+    // Soft close moved the end time; only watchers of this auction need the new deadline
+    public void notifyAuctionExtended(Auction auction) {
+        send("/topic/auction/" + auction.getId(), eventLog.append(auction.getId(), false,
+                seq -> new AuctionExtendedUpdate(eventLog.getEpoch(), seq,
+                        auction.getId(), auction.getName(), auction.getEndTime())));
     }
 
     public void notifyAuctionEnded(Auction auction) {
-        Map<String, Object> auctionInfo = new HashMap<>();
-        auctionInfo.put("auctionId", auction.getId());
-        auctionInfo.put("auctionName", auction.getName());
-        auctionInfo.put("status", auction.getStatus());
-        auctionInfo.put("finalBid", auction.getCurrentBid());
-        auctionInfo.put("winnerId", auction.getCurrentBidderId());
-        auctionInfo.put("winnerName", auction.getCurrentBidderName());
+        SharedFrame frame = eventLog.append(auction.getId(), false, seq -> new AuctionEndedUpdate(eventLog.getEpoch(), seq,
+                auction.getId(), auction.getName(), auction.getStatus(), auction.getCurrentBid(),
+                auction.getCurrentBidderId(), auction.getCurrentBidderName()));
         
         // Send to auction-specific topic
-        messagingTemplate.convertAndSend("/topic/auction/" + auction.getId(), auctionInfo);
+        send("/topic/auction/" + auction.getId(), frame);
         
-        // Send to all active auctions topic
-        messagingTemplate.convertAndSend("/topic/auctions", auctionInfo);
+        // Goes through the same tick as bids, so it replaces a pending bid and is never overtaken by one
+        conflatingPublisher.offer(auction.getId(), frame);
         
         // Notify the specific users
         if (auction.getCurrentBidderId() != null) {
@@ -59,4 +65,9 @@ public class WebSocketService {
     public void sendMessage(String userId, String message) {
         messagingTemplate.convertAndSendToUser(userId, "/queue/messages", message);
     }
+    
+    // Sends the already-serialized bytes; the template's converters are bypassed
+    private void send(String destination, SharedFrame frame) {
+        messagingTemplate.send(destination, frame.message());
+    }
 }
@@ -0,0 +1,64 @@
+
+package com.art.auction.dto;
+
+import com.art.auction.repository.AuctionSort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @ParameterizedTest
+    @EnumSource(AuctionSort.class)
+    void sortKeysSurviveTheRoundTrip(AuctionSort sort) {
+        AuctionSummary auction = summary(LocalDateTime.of(2025, 3, 1, 18, 30, 15, 123_000_000), 125.5);
+
+        PageCursor decoded = PageCursor.decode(
+                new PageCursor(sort.name(), sort.formatKey(auction), auction.getId()).encode(), sort.name());
+
+        assertThat(decoded.getId()).isEqualTo(auction.getId());
+        assertThat(sort.parseKey(decoded.getKey())).isEqualTo(sort.key(auction));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = AuctionSort.class, names = {"ENDING_SOONEST", "NEWEST"})
+    void missingKeysSurviveTheRoundTrip(AuctionSort sort) {
+        AuctionSummary auction = summary(null, 0);
+
+        PageCursor decoded = PageCursor.decode(
+                new PageCursor(sort.name(), sort.formatKey(auction), auction.getId()).encode(), sort.name());
+
+        assertThat(sort.parseKey(decoded.getKey())).isNull();
+        assertThat(sort.probe(null, auction.getId())).usingComparator(sort.comparator()).isEqualTo(auction);
+    }
+
+    @Test
+    void rejectsCursorsFromAnotherSort() {
+        String encoded = new PageCursor("NEWEST", "", "a1").encode();
+
+        assertThatThrownBy(() -> PageCursor.decode(encoded, "HIGHEST_PRICE"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> AuctionSort.HIGHEST_PRICE.parseKey(""))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void noCursorDecodesToNull() {
+        assertThat(PageCursor.decode(null, "NEWEST")).isNull();
+        assertThat(PageCursor.decode(" ", "NEWEST")).isNull();
+    }
+
+    private static AuctionSummary summary(LocalDateTime time, double currentBid) {
+        AuctionSummary auction = new AuctionSummary();
+        auction.setId("65f1c0ffee0000000000abcd");
+        auction.setEndTime(time);
+        auction.setCreatedAt(time);
+        auction.setCurrentBid(currentBid);
+        return auction;
+    }
+}
@@ -0,0 +1,167 @@
+
+package com.art.auction.service;
+
+import com.art.auction.dto.AuctionSummary;
+import com.art.auction.event.AuctionClosedEvent;
+import com.art.auction.event.AuctionCreatedEvent;
+import com.art.auction.event.AuctionExtendedEvent;
+import com.art.auction.event.BidAcceptedEvent;
+import com.art.auction.model.Auction;
+import com.art.auction.model.Bid;
+import com.art.auction.repository.AuctionRepository;
+import com.art.auction.repository.AuctionSort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ActiveAuctionCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    private ActiveAuctionCache cache;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        AuctionRepository auctionRepository = mock(AuctionRepository.class);
+        BidWriteBehind writeBehind = mock(BidWriteBehind.class);
+        when(writeBehind.flush()).thenReturn(CompletableFuture.completedFuture(true));
+        when(auctionRepository.findByEndTimeAfterAndStatus(any(), any())).thenReturn(List.of(
+                auction("a", 100, 3), auction("b", 200, 2), auction("c", 300, 1)));
+
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ActiveAuctionCache();
+        ReflectionTestUtils.setField(cache, "auctionRepository", auctionRepository);
+        ReflectionTestUtils.setField(cache, "writeBehind", writeBehind);
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        ReflectionTestUtils.setField(cache, "reloadRetryMs", 0L);
+        ReflectionTestUtils.setField(cache, "listingRefreshMs", 0L);
+        ReflectionTestUtils.setField(cache, "loadTimeoutMs", 5000L);
+        cache.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.stop();
+    }
+
+    @Test
+    void coldCacheSendsReadersToMongoWhileItLoadsInTheBackground() throws InterruptedException {
+        assertThat(cache.getActiveAuctions(AuctionSort.HIGHEST_PRICE)).isNull();
+
+        List<AuctionSummary> listing = null;
+        for (int attempt = 0; attempt < 100 && listing == null; attempt++) {
+            Thread.sleep(20);
+            listing = cache.getActiveAuctions(AuctionSort.HIGHEST_PRICE);
+        }
+        assertThat(listing).extracting(AuctionSummary::getId).containsExactly("c", "b", "a");
+    }
+
+    @Test
+    void extensionWhileColdIsIgnored() {
+        cache.onAuctionExtended(new AuctionExtendedEvent(auction("a", 100, 5)));
+
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(cache, "entries")).isEmpty();
+    }
+
+    @Test
+    void bidMovesTheAuctionWithinEachListing() {
+        load();
+        assertThat(ids(AuctionSort.HIGHEST_PRICE)).containsExactly("c", "b", "a");
+        assertThat(ids(AuctionSort.ENDING_SOONEST)).containsExactly("c", "b", "a");
+
+        Auction bidOn = auction("a", 350, 3);
+        bidOn.setVersion(2);
+        cache.onBidAccepted(new BidAcceptedEvent(bid("a", 350), bidOn));
+
+        assertThat(ids(AuctionSort.HIGHEST_PRICE)).containsExactly("a", "c", "b");
+        assertThat(cache.getActiveAuctions(AuctionSort.ENDING_SOONEST))
+                .extracting(AuctionSummary::getCurrentBid).containsExactly(300.0, 200.0, 350.0);
+    }
+
+    @Test
+    void createdAndClosedAuctionsAreListedOnTheNextRead() {
+        load();
+        assertThat(ids(AuctionSort.HIGHEST_PRICE)).containsExactly("c", "b", "a");
+
+        cache.onAuctionCreated(new AuctionCreatedEvent(auction("d", 250, 4)));
+        cache.onAuctionClosed(new AuctionClosedEvent(auction("c", 300, 1)));
+
+        assertThat(ids(AuctionSort.HIGHEST_PRICE)).containsExactly("d", "b", "a");
+    }
+
+    @Test
+    void bidOnAClosedAuctionDoesNotBringItBack() {
+        load();
+        ids(AuctionSort.HIGHEST_PRICE);
+        cache.onAuctionClosed(new AuctionClosedEvent(auction("b", 200, 2)));
+        cache.onBidAccepted(new BidAcceptedEvent(bid("b", 400), auction("b", 400, 2)));
+
+        assertThat(ids(AuctionSort.HIGHEST_PRICE)).containsExactly("c", "a");
+    }
+
+    @Test
+    void onlyListingsServedAsTheyStandCountAsHits() {
+        load();
+        ids(AuctionSort.NEWEST);
+        ids(AuctionSort.NEWEST);
+        cache.onBidAccepted(new BidAcceptedEvent(bid("a", 150), auction("a", 150, 3)));
+        ids(AuctionSort.NEWEST);
+
+        assertThat(meterRegistry.counter("auctions.cache.requests", "result", "miss").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("auctions.cache.requests", "result", "hit").count()).isEqualTo(1);
+    }
+
+    @Test
+    void listingThatMissedAChangeIsServedUntilItIsDueForARefresh() {
+        ReflectionTestUtils.setField(cache, "listingRefreshMs", 60_000L);
+        load();
+        ids(AuctionSort.HIGHEST_PRICE);
+        cache.onBidAccepted(new BidAcceptedEvent(bid("a", 350), auction("a", 350, 3)));
+
+        assertThat(ids(AuctionSort.HIGHEST_PRICE)).containsExactly("c", "b", "a");
+    }
+
+    private void load() {
+        ReflectionTestUtils.invokeMethod(cache, "load");
+    }
+
+    private List<String> ids(AuctionSort sort) {
+        return cache.getActiveAuctions(sort).stream().map(AuctionSummary::getId).toList();
+    }
+
+    private static Auction auction(String id, double currentBid, int hoursLeft) {
+        Auction auction = new Auction();
+        auction.setId(id);
+        auction.setName(id);
+        auction.setCurrentBid(currentBid);
+        auction.setEndTime(NOW.plusHours(hoursLeft));
+        auction.setCreatedAt(NOW.minusHours(hoursLeft));
+        auction.setVersion(1);
+        return auction;
+    }
+
+    private static Bid bid(String auctionId, double amount) {
+        Bid bid = new Bid();
+        bid.setAuctionId(auctionId);
+        bid.setBidderId("bidder");
+        bid.setAmount(amount);
+        bid.setTimestamp(LocalDateTime.now());
+        return bid;
+    }
+}
@@ -0,0 +1,81 @@
+package com.art.auction.service;
+
+import com.art.auction.event.AuctionClosedEvent;
+import com.art.auction.model.Auction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuctionEventLogTest {
+
+    private final AuctionEventLog log = new AuctionEventLog();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(log, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(log, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(log, "bufferSize", 4);
+        ReflectionTestUtils.setField(log, "snapshotThreads", 1);
+        log.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        log.stop();
+    }
+
+    @Test
+    void afterReturnsTheMissedEventsOldestFirst() {
+        AuctionEventLog.EventRing ring = new AuctionEventLog.EventRing(4);
+        SharedFrame[] frames = add(ring, 3);
+
+        assertThat(ring.after(1)).containsExactly(frames[1], frames[2]);
+        assertThat(ring.after(3)).isEmpty();
+    }
+
+    @Test
+    void afterIsNullOnceAMissedEventIsOverwritten() {
+        AuctionEventLog.EventRing ring = new AuctionEventLog.EventRing(4);
+        SharedFrame[] frames = add(ring, 6);
+
+        assertThat(ring.after(1)).isNull();
+        assertThat(ring.after(2)).containsExactly(frames[2], frames[3], frames[4], frames[5]);
+    }
+
+    @Test
+    void afterIsNullForASequenceNumberNotYetGiven() {
+        AuctionEventLog.EventRing ring = new AuctionEventLog.EventRing(4);
+        add(ring, 2);
+
+        assertThat(ring.after(5)).isNull();
+    }
+
+    @Test
+    void auctionClosedBeforeItsFirstEventIsStillEvicted() {
+        Auction auction = new Auction();
+        auction.setId("a1");
+        log.onAuctionClosed(new AuctionClosedEvent(auction));
+        log.append("a1", false, seq -> Map.of("seq", seq));
+
+        ReflectionTestUtils.setField(log, "retentionMs", -1L);
+        log.evictClosed();
+
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(log, "rings")).isEmpty();
+    }
+
+    private static SharedFrame[] add(AuctionEventLog.EventRing ring, int count) {
+        SharedFrame[] frames = new SharedFrame[count];
+        for (int i = 0; i < count; i++) {
+            frames[i] = new SharedFrame(new byte[] {(byte) i}, false);
+            ring.add(i + 1, frames[i]);
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,101 @@
+package com.art.auction.service;
+
+import com.art.auction.model.Auction;
+import com.art.auction.model.Bid;
+import com.art.auction.model.MaxBid;
+import com.art.auction.repository.AuctionRepository;
+import com.art.auction.repository.MaxBidRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BidEngineTest {
+
+    private final BidEngine engine = new BidEngine();
+
+    private final AuctionRepository auctionRepository = mock(AuctionRepository.class);
+
+    private final MaxBidRepository maxBidRepository = mock(MaxBidRepository.class);
+
+    private final BidWriteBehind writeBehind = mock(BidWriteBehind.class);
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(engine, "auctionRepository", auctionRepository);
+        ReflectionTestUtils.setField(engine, "maxBidRepository", maxBidRepository);
+        ReflectionTestUtils.setField(engine, "writeBehind", writeBehind);
+        ReflectionTestUtils.setField(engine, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(engine, "webSocketService", mock(WebSocketService.class));
+        ReflectionTestUtils.setField(engine, "shardCount", 1);
+        ReflectionTestUtils.setField(engine, "ioThreads", 1);
+        ReflectionTestUtils.setField(engine, "proxyIncrement", 1.0);
+        engine.start();
+
+        Auction auction = new Auction();
+        auction.setId("a1");
+        auction.setSellerId("seller");
+        auction.setCurrentBid(100);
+        auction.setEndTime(LocalDateTime.now().plusHours(1));
+        when(auctionRepository.findById("a1")).thenReturn(Optional.of(auction));
+        when(maxBidRepository.findByAuctionId("a1")).thenReturn(List.of());
+        when(writeBehind.getMode()).thenReturn(BidWriteBehind.DurabilityMode.ACK_AFTER_FLUSH);
+        when(writeBehind.enqueue(any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        engine.stop();
+    }
+
+    @Test
+    void failingListenerNeitherFailsTheBidNorStopsTheShard() throws Exception {
+        doThrow(new IllegalStateException("listener down")).when(eventPublisher).publishEvent(any(Object.class));
+
+        BidResult first = engine.placeBid("a1", "alice", "Alice", 150).get(5, TimeUnit.SECONDS);
+        BidResult second = engine.placeBid("a1", "bob", "Bob", 200).get(5, TimeUnit.SECONDS);
+
+        assertThat(first.isAccepted()).isTrue();
+        assertThat(second.isAccepted()).isTrue();
+        assertThat(engine.knownPrice("a1")).isEqualTo(200);
+    }
+
+    @Test
+    void handBidOutbidByAProxyIsStillRecorded() throws Exception {
+        MaxBid maxBid = new MaxBid();
+        maxBid.setId("m1");
+        maxBid.setAuctionId("a1");
+        maxBid.setBidderId("bob");
+        maxBid.setBidderName("Bob");
+        maxBid.setMaxAmount(300);
+        maxBid.setCreatedAt(LocalDateTime.now().minusMinutes(1));
+        when(maxBidRepository.findByAuctionId("a1")).thenReturn(List.of(maxBid));
+
+        BidResult result = engine.placeBid("a1", "alice", "Alice", 150).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.getStatus()).isEqualTo(BidResult.Status.OUTBID);
+        ArgumentCaptor<Bid> bids = ArgumentCaptor.forClass(Bid.class);
+        verify(writeBehind, times(2)).enqueue(bids.capture(), any());
+        assertThat(bids.getAllValues()).extracting(Bid::getBidderId, Bid::getAmount)
+                .containsExactly(tuple("alice", 150.0), tuple("bob", 151.0));
+    }
+}
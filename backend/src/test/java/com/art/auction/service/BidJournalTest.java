@@ -0,0 +1,164 @@
+
+package com.art.auction.service;
+
+import com.art.auction.event.AuctionCreatedEvent;
+import com.art.auction.event.AuctionExtendedEvent;
+import com.art.auction.event.BidAcceptedEvent;
+import com.art.auction.model.Auction;
+import com.art.auction.model.Bid;
+import com.art.auction.repository.AuctionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BidJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private BidEngine bidEngine;
+
+    private BidWriteBehind writeBehind;
+
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        bidEngine = mock(BidEngine.class);
+        writeBehind = mock(BidWriteBehind.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        when(writeBehind.enqueue(any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        when(writeBehind.flush()).thenReturn(CompletableFuture.completedFuture(true));
+    }
+
+    @Test
+    void replaysJournalledBidsIntoTheEngine() throws Exception {
+        BidJournal journal = start();
+        Auction auction = auction("a1");
+        journal.onAuctionCreated(new AuctionCreatedEvent(auction));
+        journal.onBidAccepted(new BidAcceptedEvent(bid("a1", 150), withBid(auction, 150)));
+        journal.stop();
+
+        Auction stored = withBid(auction, 150);
+        when(mongoTemplate.find(any(Query.class), eq(Auction.class))).thenReturn(List.of(stored));
+        start();
+
+        verify(writeBehind).enqueue(any(Bid.class), isNull());
+        assertThat(preloaded()).singleElement().satisfies(recovered -> {
+            assertThat(recovered.getCurrentBid()).isEqualTo(150);
+            assertThat(recovered.getCurrentBidderId()).isEqualTo("bidder");
+            assertThat(recovered.getVersion()).isEqualTo(stored.getVersion());
+        });
+    }
+
+    @Test
+    void leavesAuctionsTheDatabaseDisagreesWithToMongo() throws Exception {
+        BidJournal journal = start();
+        Auction auction = auction("a1");
+        journal.onAuctionCreated(new AuctionCreatedEvent(auction));
+        journal.onBidAccepted(new BidAcceptedEvent(bid("a1", 150), withBid(auction, 150)));
+        journal.stop();
+
+        // The flush refused the journalled bid, so Mongo still has the opening state
+        when(mongoTemplate.find(any(Query.class), eq(Auction.class))).thenReturn(List.of(auction));
+        start();
+
+        assertThat(preloaded()).isEmpty();
+    }
+
+    @Test
+    void replaysSoftCloseExtensionsWithTheBidThatCausedThem() throws Exception {
+        BidJournal journal = start();
+        Auction auction = auction("a1");
+        journal.onAuctionCreated(new AuctionCreatedEvent(auction));
+        Auction extended = withBid(auction, 150);
+        extended.setEndTime(auction.getEndTime().plusMinutes(2));
+        extended.setVersion(extended.getVersion() + 1);
+        Bid bid = bid("a1", 150);
+        journal.onBidAccepted(new BidAcceptedEvent(bid, extended));
+        journal.onAuctionExtended(new AuctionExtendedEvent(extended));
+        journal.stop();
+
+        when(mongoTemplate.find(any(Query.class), eq(Auction.class))).thenReturn(List.of(extended));
+        start();
+
+        verify(writeBehind).enqueue(any(Bid.class), eq(extended.getEndTime()));
+        assertThat(preloaded()).singleElement()
+                .satisfies(recovered -> assertThat(recovered.getEndTime()).isEqualTo(extended.getEndTime()));
+    }
+
+    private BidJournal start() throws Exception {
+        BidJournal journal = new BidJournal();
+        ReflectionTestUtils.setField(journal, "bidEngine", bidEngine);
+        ReflectionTestUtils.setField(journal, "writeBehind", writeBehind);
+        ReflectionTestUtils.setField(journal, "auctionRepository", mock(AuctionRepository.class));
+        ReflectionTestUtils.setField(journal, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "journalDir", directory.toString());
+        ReflectionTestUtils.setField(journal, "segmentSizeMb", 1);
+        ReflectionTestUtils.setField(journal, "flushTimeoutMs", 5000L);
+        journal.start();
+        return journal;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<Auction> preloaded() {
+        ArgumentCaptor<Collection<Auction>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(bidEngine, atLeastOnce()).preload(captor.capture());
+        return captor.getValue();
+    }
+
+    private static Auction auction(String id) {
+        Auction auction = new Auction();
+        auction.setId(id);
+        auction.setName("Sunflowers");
+        auction.setSellerId("seller");
+        auction.setSellerName("Seller");
+        auction.setMinBid(100);
+        auction.setEndTime(LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.MILLIS));
+        auction.setVersion(1);
+        return auction;
+    }
+
+    private static Auction withBid(Auction source, double amount) {
+        Auction auction = auction(source.getId());
+        auction.setEndTime(source.getEndTime());
+        auction.setCurrentBid(amount);
+        auction.setCurrentBidderId("bidder");
+        auction.setCurrentBidderName("Bidder");
+        auction.setBidCount(1);
+        auction.setVersion(source.getVersion() + 1);
+        return auction;
+    }
+
+    private static Bid bid(String auctionId, double amount) {
+        Bid bid = new Bid();
+        bid.setId("b-" + amount);
+        bid.setAuctionId(auctionId);
+        bid.setBidderId("bidder");
+        bid.setBidderName("Bidder");
+        bid.setAmount(amount);
+        bid.setTimestamp(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        return bid;
+    }
+}
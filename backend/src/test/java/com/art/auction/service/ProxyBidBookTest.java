@@ -0,0 +1,99 @@
+
+package com.art.auction.service;
+
+import com.art.auction.model.Auction;
+import com.art.auction.model.MaxBid;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProxyBidBookTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Test
+    void highestMaxBidLeadsOneIncrementAboveTheNext() {
+        ProxyBidBook book = new ProxyBidBook();
+        book.put(maxBid("alice", 200, 0));
+        book.put(maxBid("bob", 150, 1));
+
+        ProxyBidBook.Resolution resolution = book.resolve(auction(100, null), 1, false);
+
+        assertThat(resolution.leader.getBidderId()).isEqualTo("alice");
+        assertThat(resolution.price).isEqualTo(151);
+    }
+
+    @Test
+    void earlierMaxBidWinsATie() {
+        ProxyBidBook book = new ProxyBidBook();
+        book.put(maxBid("bob", 150, 1));
+        book.put(maxBid("alice", 150, 0));
+
+        ProxyBidBook.Resolution resolution = book.resolve(auction(100, null), 1, false);
+
+        assertThat(resolution.leader.getBidderId()).isEqualTo("alice");
+        assertThat(resolution.price).isEqualTo(150);
+    }
+
+    @Test
+    void maxBidEqualToANewHandBidWins() {
+        ProxyBidBook book = new ProxyBidBook();
+        book.put(maxBid("alice", 200, 0));
+
+        ProxyBidBook.Resolution resolution = book.resolve(auction(200, "carol"), 1, true);
+
+        assertThat(resolution.leader.getBidderId()).isEqualTo("alice");
+        assertThat(resolution.price).isEqualTo(200);
+        assertThat(book.takeExhausted()).isEmpty();
+    }
+
+    @Test
+    void outbidMaxBidsAreHandedOutOnce() {
+        ProxyBidBook book = new ProxyBidBook();
+        book.put(maxBid("alice", 150, 0));
+        book.put(maxBid("bob", 120, 1));
+
+        ProxyBidBook.Resolution resolution = book.resolve(auction(200, "carol"), 1, true);
+
+        assertThat(resolution).isNull();
+        assertThat(book.isEmpty()).isTrue();
+        assertThat(book.get("alice")).isNull();
+        assertThat(book.takeExhausted()).extracting(MaxBid::getBidderId).containsExactlyInAnyOrder("alice", "bob");
+        assertThat(book.takeExhausted()).isEmpty();
+    }
+
+    @Test
+    void leaderOnlyMovesUpWhilePushed() {
+        ProxyBidBook book = new ProxyBidBook();
+        book.put(maxBid("alice", 300, 0));
+
+        assertThat(book.resolve(auction(151, "alice"), 1, false)).isNull();
+
+        book.put(maxBid("bob", 180, 1));
+        ProxyBidBook.Resolution resolution = book.resolve(auction(151, "alice"), 1, false);
+
+        assertThat(resolution.leader.getBidderId()).isEqualTo("alice");
+        assertThat(resolution.price).isEqualTo(181);
+    }
+
+    private static Auction auction(double currentBid, String leader) {
+        Auction auction = new Auction();
+        auction.setId("a1");
+        auction.setCurrentBid(currentBid);
+        auction.setCurrentBidderId(leader);
+        return auction;
+    }
+
+    private static MaxBid maxBid(String bidderId, double maxAmount, int minutes) {
+        MaxBid maxBid = new MaxBid();
+        maxBid.setId("m-" + bidderId);
+        maxBid.setAuctionId("a1");
+        maxBid.setBidderId(bidderId);
+        maxBid.setBidderName(bidderId);
+        maxBid.setMaxAmount(maxAmount);
+        maxBid.setCreatedAt(START.plusMinutes(minutes));
+        return maxBid;
+    }
+}
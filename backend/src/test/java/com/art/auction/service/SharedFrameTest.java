@@ -0,0 +1,118 @@
+package com.art.auction.service;
+
+import com.art.auction.dto.BidUpdate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class SharedFrameTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedFrameTest.class);
+
+    // Topic plus listing sessions a popular auction fans out to
+    private static final int DESTINATIONS = 50;
+
+    private static final int BROADCASTS = 2000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+
+    private long sink;
+
+    @Test
+    void everyMessageCarriesTheSameBytes() throws Exception {
+        SharedFrame frame = new SharedFrame(objectMapper.writeValueAsBytes(update(1)), true);
+
+        Message<byte[]> topic = frame.message();
+        Message<byte[]> session = frame.messageForSession("session-1");
+
+        assertThat(session.getPayload()).isSameAs(topic.getPayload());
+        assertThat(SimpMessageHeaderAccessor.getSessionId(session.getHeaders())).isEqualTo("session-1");
+        assertThat(topic.getHeaders().get(SharedFrame.DROPPABLE_HEADER)).isEqualTo(Boolean.TRUE);
+    }
+
+    // Before: a map per event, converted by Jackson for every destination. After: one typed update, serialized once
+    @Test
+    void serializingOnceCostsLessPerBroadcastThanConvertingPerDestination() throws Exception {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isCurrentThreadCpuTimeSupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        threads.setThreadCpuTimeEnabled(true);
+
+        Broadcast perDestination = seq -> {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("epoch", 1L);
+            payload.put("seq", seq);
+            payload.put("auctionId", "auction-1");
+            payload.put("auctionName", "Still life with pears");
+            payload.put("currentBid", 1250.0 + seq);
+            payload.put("bidderName", "alice");
+            for (int i = 0; i < DESTINATIONS; i++) {
+                Message<?> message = converter.toMessage(payload, headers());
+                sink += ((byte[]) message.getPayload()).length;
+            }
+        };
+        Broadcast once = seq -> {
+            SharedFrame frame = new SharedFrame(objectMapper.writeValueAsBytes(update(seq)), true);
+            for (int i = 0; i < DESTINATIONS; i++) {
+                sink += frame.message().getPayload().length;
+            }
+        };
+
+        // Warm both paths up before measuring either
+        measure(threads, perDestination);
+        measure(threads, once);
+        Cost before = measure(threads, perDestination);
+        Cost after = measure(threads, once);
+
+        logger.info("Per broadcast to {} destinations: converting per destination {} bytes, {} us CPU; "
+                        + "serializing once {} bytes, {} us CPU",
+                DESTINATIONS, before.bytes, before.cpuNanos / 1000, after.bytes, after.cpuNanos / 1000);
+        assertThat(after.bytes).isLessThan(before.bytes);
+        assertThat(sink).isPositive();
+    }
+
+    private Cost measure(ThreadMXBean threads, Broadcast broadcast) throws Exception {
+        long thread = Thread.currentThread().getId();
+        long bytes = threads.getThreadAllocatedBytes(thread);
+        long cpu = threads.getCurrentThreadCpuTime();
+        for (int seq = 1; seq <= BROADCASTS; seq++) {
+            broadcast.send(seq);
+        }
+        return new Cost((threads.getThreadAllocatedBytes(thread) - bytes) / BROADCASTS,
+                (threads.getCurrentThreadCpuTime() - cpu) / BROADCASTS);
+    }
+
+    private static MessageHeaders headers() {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setLeaveMutable(true);
+        return headers.getMessageHeaders();
+    }
+
+    private static BidUpdate update(long seq) {
+        return new BidUpdate(1, seq, "auction-1", "Still life with pears", 1250.0 + seq, "alice");
+    }
+
+    private interface Broadcast {
+
+        void send(long seq) throws Exception;
+    }
+
+    private record Cost(long bytes, long cpuNanos) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.art.auction.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlowConsumerPolicyTest {
+
+    private final SlowConsumerPolicy policy = new SlowConsumerPolicy();
+
+    private final WebSocketSession raw = mock(WebSocketSession.class);
+
+    private final AtomicReference<WebSocketSession> counting = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(policy, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(policy, "queueLimit", 2);
+        ReflectionTestUtils.setField(policy, "disconnectAfterMs", 0L);
+        policy.start();
+
+        when(raw.getId()).thenReturn("s1");
+        WebSocketHandler handler = mock(WebSocketHandler.class);
+        doAnswer(invocation -> {
+            counting.set(invocation.getArgument(0));
+            return null;
+        }).when(handler).afterConnectionEstablished(any());
+        policy.decorate(handler).afterConnectionEstablished(raw);
+    }
+
+    @Test
+    void heartbeatsNeitherAddToNorTakeFromTheDepth() throws Exception {
+        policy.preSend(message(SimpMessageType.MESSAGE), null);
+        policy.preSend(message(SimpMessageType.HEARTBEAT), null);
+
+        counting.get().sendMessage(new TextMessage("\n"));
+        counting.get().sendMessage(new TextMessage("\n"));
+
+        assertThat(depth()).isEqualTo(1);
+
+        counting.get().sendMessage(new TextMessage("MESSAGE\ndestination:/topic/auction/a1\n\n{}\u0000"));
+
+        assertThat(depth()).isZero();
+    }
+
+    @Test
+    void slowSessionIsClosedFromTheNextWriteNotUnderneathIt() throws Exception {
+        policy.preSend(message(SimpMessageType.MESSAGE), null);
+        policy.preSend(message(SimpMessageType.MESSAGE), null);
+
+        Message<?> overLimit = message(SimpMessageType.MESSAGE);
+        assertThat(policy.preSend(overLimit, null)).isSameAs(overLimit);
+        verify(raw, never()).close(any(CloseStatus.class));
+
+        assertThatThrownBy(() -> counting.get().sendMessage(new TextMessage("MESSAGE\n\n\u0000")))
+                .isInstanceOf(SessionLimitExceededException.class);
+        verify(raw, never()).sendMessage(any());
+    }
+
+    private int depth() {
+        Object state = ((Map<?, ?>) ReflectionTestUtils.getField(policy, "sessions")).get("s1");
+        return ((AtomicInteger) ReflectionTestUtils.getField(state, "depth")).get();
+    }
+
+    private static Message<byte[]> message(SimpMessageType type) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(type);
+        headers.setSessionId("s1");
+        return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+    }
+}
@@ -5,6 +5,7 @@ import { useQuery } from "@tanstack/react-query";
 import { auctionsAPI } from "@/services/api";
 import { Auction } from "@/types/auction";
 import { toast } from "@/hooks/use-toast";
+import { useAuctionUpdates } from "@/hooks/use-auction-updates";
 import { Button } from "@/components/ui/button";
 import { Badge } from "@/components/ui/badge";
 import {
@@ -42,6 +43,12 @@ const AuctionsList = () => {
     }
   }, [data]);
 
+  // Live prices for the seller's auctions that are still running
+  useAuctionUpdates(
+    "seller-auctions",
+    sellerAuctions.filter((auction) => auction.status === "ACTIVE").map((auction) => auction.id)
+  );
+
   const formatDate = (dateString: string) => {
     try {
       return new Date(dateString).toLocaleDateString();
@@ -0,0 +1,35 @@
+import { useEffect } from "react"
+import { useQueryClient } from "@tanstack/react-query"
+import websocket, { AuctionUpdate } from "@/services/websocket"
+import { Auction } from "@/types/auction"
+
+function applyUpdate(auction: Auction, update: AuctionUpdate): Auction {
+  return {
+    ...auction,
+    current_bid: update.currentBid ?? update.finalBid ?? auction.current_bid,
+    current_bidder_name: update.bidderName ?? update.winnerName ?? auction.current_bidder_name,
+    status: update.status ?? auction.status,
+    end_time: update.endTime ?? auction.end_time,
+  }
+}
+
+// Registers the auctions on screen with the server and patches them in the cached list as updates arrive
+export function useAuctionUpdates(queryKey: string, auctionIds: string[]) {
+  const queryClient = useQueryClient()
+  const ids = auctionIds.join(",")
+
+  useEffect(() => {
+    websocket.setInterest(ids ? ids.split(",") : [])
+    return () => websocket.setInterest([])
+  }, [ids])
+
+  useEffect(() => {
+    return websocket.onAuctionUpdate((update) => {
+      queryClient.setQueryData<Auction[]>([queryKey], (auctions) =>
+        Array.isArray(auctions)
+          ? auctions.map((auction) => (auction.id === update.auctionId ? applyUpdate(auction, update) : auction))
+          : auctions
+      )
+    })
+  }, [queryClient, queryKey])
+}
@@ -9,6 +9,7 @@ import { auctionsAPI } from "@/services/api";
 import { Auction } from "@/types/auction";
 import AuctionCard from "@/components/buyer/AuctionCard";
 import AuctionFilters from "@/components/buyer/AuctionFilters";
+import { useAuctionUpdates } from "@/hooks/use-auction-updates";
 
 const Buyer: React.FC = () => {
   const [bidAmounts, setBidAmounts] = useState<Record<string, number | null>>({});
@@ -56,6 +57,9 @@ const Buyer: React.FC = () => {
     return matchesTab && matchesSearch;
   }) : [];
 
+  // Live prices for the cards currently shown
+  useAuctionUpdates("active-auctions", filteredAuctions.map((auction: Auction) => auction.id));
+
   return (
     <MainLayout>
       <div className="space-y-6">
@@ -9,9 +9,31 @@ interface WebSocketNotification {
   timestamp: string;
 }
 
+export interface AuctionUpdate {
+  type?: string;
+  // Server run and per-auction position of the event, used to skip duplicates and to resume
+  epoch: number;
+  seq: number;
+  auctionId: string;
+  auctionName?: string;
+  currentBid?: number;
+  bidderName?: string;
+  status?: string;
+  finalBid?: number;
+  winnerName?: string;
+  endTime?: string;
+  bidCount?: number;
+}
+
 class WebSocketService {
   private client: Client | null = null;
   private notificationCallbacks: ((notification: WebSocketNotification) => void)[] = [];
+  private auctionUpdateCallbacks: ((update: AuctionUpdate) => void)[] = [];
+  // Auctions on screen or watched; the server only sends listing updates for these
+  private interest: string[] = [];
+  // Last event seen per auction, sent back on reconnect so the server can replay what was missed
+  private epoch: number | null = null;
+  private lastSeq = new Map<string, number>();
   private reconnectAttempts = 0;
   private maxReconnectAttempts = 5;
 
@@ -47,19 +69,15 @@ class WebSocketService {
         }
       });
 
-      // Subscribe to auction updates
-      this.client?.subscribe('/topic/auctions', (message) => {
-        try {
-          const update = JSON.parse(message.body);
-          // Handle auction updates
-          toast({
-            title: "Auction Update",
-            description: update.message
-          });
-        } catch (error) {
-          console.error('Error processing auction update:', error);
-        }
-      });
+      // Subscribe to updates for the auctions in our interest set
+      this.client?.subscribe('/user/queue/auctions', (message) => this.handleAuctionUpdate(message));
+
+      // Events missed while disconnected, or a snapshot when too many were missed
+      this.client?.subscribe('/user/queue/replay', (message) => this.handleAuctionUpdate(message));
+
+      // The server forgets interest when a connection drops, so register it again on every connect
+      this.sendInterest();
+      this.sendResume();
     };
 
     this.client.onStompError = (frame) => {
@@ -75,6 +93,25 @@ class WebSocketService {
     this.client.activate();
   }
 
+  private handleAuctionUpdate(message: Message) {
+    try {
+      const update = JSON.parse(message.body) as AuctionUpdate;
+      if (update.epoch !== this.epoch) {
+        // The server restarted; sequence numbers from before mean nothing now
+        this.epoch = update.epoch;
+        this.lastSeq.clear();
+      } else if (update.type !== 'SNAPSHOT' && update.seq <= (this.lastSeq.get(update.auctionId) ?? 0)) {
+        // Already seen, live and again in a replay
+        return;
+      }
+      this.lastSeq.set(update.auctionId, update.seq);
+
+      this.auctionUpdateCallbacks.forEach(callback => callback(update));
+    } catch (error) {
+      console.error('Error processing auction update:', error);
+    }
+  }
+
   private handleConnectionError() {
     this.reconnectAttempts++;
     if (this.reconnectAttempts >= this.maxReconnectAttempts) {
@@ -88,12 +125,47 @@ class WebSocketService {
 
   disconnect() {
     if (this.client) {
+      // Subscribers keep their callbacks across reconnects; each removes its own when it unmounts
       this.client.deactivate();
       this.client = null;
-      this.notificationCallbacks = [];
     }
   }
 
+  // Replaces the set of auctions this client wants listing updates for
+  setInterest(auctionIds: string[]) {
+    this.interest = Array.from(new Set(auctionIds));
+    this.sendInterest();
+  }
+
+  onAuctionUpdate(callback: (update: AuctionUpdate) => void) {
+    this.auctionUpdateCallbacks.push(callback);
+    return () => {
+      this.auctionUpdateCallbacks = this.auctionUpdateCallbacks.filter(cb => cb !== callback);
+    };
+  }
+
+  private sendInterest() {
+    if (!this.client?.connected) {
+      return;
+    }
+
+    this.client.publish({
+      destination: '/app/interest',
+      body: JSON.stringify({ auctionIds: this.interest })
+    });
+  }
+
+  private sendResume() {
+    if (!this.client?.connected || this.epoch === null || this.lastSeq.size === 0) {
+      return;
+    }
+
+    this.client.publish({
+      destination: '/app/resume',
+      body: JSON.stringify({ epoch: this.epoch, auctions: Object.fromEntries(this.lastSeq) })
+    });
+  }
+
   onNotification(callback: (notification: WebSocketNotification) => void) {
     this.notificationCallbacks.push(callback);
     return () => {